@@ -0,0 +1,56 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kpi.hospital.dto.AiAnomalyResponse;
+import com.kpi.hospital.dto.AiPredictionResponse;
+import com.kpi.hospital.mock.ai.AiAnomalyDetector;
+import com.kpi.hospital.mock.ai.AiPredictionEngine;
+import com.kpi.hospital.model.KpiSeries;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AiEngineBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int points;
+
+    private AiAnomalyDetector anomalyDetector;
+    private AiPredictionEngine predictionEngine;
+    private List<KpiSeries> series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        anomalyDetector = new AiAnomalyDetector(null, null);
+        predictionEngine = new AiPredictionEngine(null, null);
+        series = List.of(SyntheticKpiData.series("H1", 1, points));
+    }
+
+    @Benchmark
+    public List<AiAnomalyResponse> scoreAnomaly() {
+        return anomalyDetector.detectAnomalies(series);
+    }
+
+    @Benchmark
+    public List<AiPredictionResponse> toPrediction() {
+        return predictionEngine.generatePredictions(series);
+    }
+}
@@ -0,0 +1,44 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.util.DtoMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int points;
+
+    private KpiSeries series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = SyntheticKpiData.series("H1", 1, points);
+    }
+
+    @Benchmark
+    public KpiResponse toKpiResponse() {
+        return DtoMapper.toKpiResponse(series);
+    }
+}
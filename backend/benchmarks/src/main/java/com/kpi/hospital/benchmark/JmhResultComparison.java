@@ -0,0 +1,80 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public final class JmhResultComparison {
+
+    private JmhResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        if (!options.containsKey("baseline") || !options.containsKey("current")) {
+            System.err.println("usage: --baseline=<jmh.json> --current=<jmh.json> [--threshold-pct=10]");
+            System.exit(2);
+        }
+        double thresholdPct = Double.parseDouble(options.getOrDefault("threshold-pct", "10"));
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(new File(options.get("baseline"))));
+        Map<String, JsonNode> current = index(mapper.readTree(new File(options.get("current"))));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            double noise = finite(before.path("primaryMetric").path("scoreError").asDouble())
+                    + finite(after.path("primaryMetric").path("scoreError").asDouble());
+            double changePct = beforeScore == 0 ? 0 : (afterScore - beforeScore) * 100.0 / beforeScore;
+            boolean regressed = changePct > thresholdPct && afterScore - beforeScore > noise;
+            if (regressed) {
+                regressions++;
+            }
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("benchmark", entry.getKey());
+            line.put("unit", after.path("primaryMetric").path("scoreUnit").asText());
+            line.put("baseline", beforeScore);
+            line.put("current", afterScore);
+            line.put("changePct", Math.round(changePct * 10) / 10.0);
+            line.put("regressed", regressed);
+            System.out.println(mapper.writeValueAsString(line));
+        }
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String mode = result.path("mode").asText();
+            if (!mode.equals("avgt") && !mode.equals("sample") && !mode.equals("ss")) {
+                continue;
+            }
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields()
+                    .forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            byKey.put(result.path("benchmark").asText() + params, result);
+        }
+        return byKey;
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
@@ -0,0 +1,109 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import com.kpi.hospital.security.JwtAuthenticationFilter;
+import com.kpi.hospital.security.JwtProperties;
+import com.kpi.hospital.security.JwtTokenService;
+import com.kpi.hospital.security.TokenDenylist;
+import com.kpi.hospital.security.UserSecurityVersions;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.ServletException;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "Y2hhbmdlLW1lLWNoYW5nZS1tZS1jaGFuZ2UtbWUtY2hhbmdlLW1l";
+    private static final String EMAIL = "director@hospital-kpi.ai";
+
+    @Param({"true", "false"})
+    public boolean claimsCache;
+
+    @Param({"true", "false"})
+    public boolean statelessAuthentication;
+
+    private JwtProperties jwtProperties;
+    private UserDetailsService userDetailsService;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setIssuer("hospital-kpi-saas");
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setExpirationMinutes(60);
+        jwtProperties.getClaimsCache().setEnabled(claimsCache);
+        jwtProperties.setStatelessAuthentication(statelessAuthentication);
+        UserDetails user = User.withUsername(EMAIL)
+                .password("{noop}secret")
+                .authorities(new SimpleGrantedAuthority("ROLE_DIRECTOR"))
+                .build();
+        userDetailsService = new InMemoryUserDetailsManager(user);
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties, userDetailsService,
+                new UserSecurityVersions(null));
+        filter = new JwtAuthenticationFilter(jwtTokenService, new TokenDenylist(null, null, jwtProperties));
+        token = jwtTokenService.generateToken(
+                new UsernamePasswordAuthenticationToken(EMAIL, null, user.getAuthorities()));
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Authentication filter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/kpis/history/h-1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication legacyParse() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret())))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        return new UsernamePasswordAuthenticationToken(userDetails, token, userDetails.getAuthorities());
+    }
+}
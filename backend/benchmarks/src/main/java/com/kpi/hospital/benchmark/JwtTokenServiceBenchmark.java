@@ -0,0 +1,74 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import com.kpi.hospital.security.IssuedToken;
+import com.kpi.hospital.security.JwtProperties;
+import com.kpi.hospital.security.JwtTokenService;
+import com.kpi.hospital.security.UserSecurityVersions;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenServiceBenchmark {
+
+    private static final String SECRET = "Y2hhbmdlLW1lLWNoYW5nZS1tZS1jaGFuZ2UtbWUtY2hhbmdlLW1l";
+    private static final String EMAIL = "director@hospital-kpi.ai";
+
+    @Param({"true", "false"})
+    public boolean claimsCache;
+
+    private JwtTokenService jwtTokenService;
+    private Authentication authentication;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setIssuer("hospital-kpi-saas");
+        jwtProperties.setSecret(SECRET);
+        jwtProperties.setExpirationMinutes(60);
+        jwtProperties.getClaimsCache().setEnabled(claimsCache);
+        jwtProperties.setStatelessAuthentication(true);
+        UserDetails user = User.withUsername(EMAIL)
+                .password("{noop}secret")
+                .authorities(new SimpleGrantedAuthority("ROLE_DIRECTOR"))
+                .build();
+        jwtTokenService = new JwtTokenService(jwtProperties, new InMemoryUserDetailsManager(user),
+                new UserSecurityVersions(null));
+        authentication = new UsernamePasswordAuthenticationToken(EMAIL, null, user.getAuthorities());
+        token = jwtTokenService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public IssuedToken generate() {
+        return jwtTokenService.issueToken(authentication);
+    }
+
+    @Benchmark
+    public Authentication parse() {
+        return jwtTokenService.parseToken(token);
+    }
+}
@@ -0,0 +1,82 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.util.DtoMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KpiHistoryWireFormatBenchmark {
+
+    public enum Format {
+        ROW_JSON, COLUMNAR_JSON, CBOR, SMILE
+    }
+
+    @Param({"ROW_JSON", "COLUMNAR_JSON", "CBOR", "SMILE"})
+    public Format format;
+
+    @Param({"12"})
+    public int series;
+
+    @Param({"50", "500"})
+    public int points;
+
+    private List<KpiSeries> history;
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        history = SyntheticKpiData.hospital("H1", series, points);
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        System.out.printf("{\"format\":\"%s\",\"series\":%d,\"points\":%d,\"bytes\":%d}%n",
+                format, series, points, render().length);
+    }
+
+    @Benchmark
+    public byte[] render() throws JsonProcessingException {
+        if (format == Format.ROW_JSON) {
+            return mapper.writeValueAsBytes(history.stream().map(DtoMapper::toKpiResponse)
+                    .collect(Collectors.toList()));
+        }
+        return mapper.writeValueAsBytes(history.stream().map(DtoMapper::toKpiSeriesColumns)
+                .collect(Collectors.toList()));
+    }
+
+    private JsonFactory factory() {
+        return switch (format) {
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
@@ -0,0 +1,510 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+public final class KpiLoadTest {
+
+    private static final String PASSWORD = "LoadTest#1";
+    private static final String DIRECTOR = "director@load.test";
+    private static final List<String> DEPARTMENTS = List.of("ICU", "ER", "Surgery", "Pediatrics");
+    private static final List<String> METRICS = List.of("bed_occupancy", "readmission_rate", "avg_length_of_stay");
+    private static final String CONTENDED_METRIC = "contended_metric";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final List<Session> managers;
+    private final Session director;
+    private final List<String> seriesKeys;
+
+    private KpiLoadTest(HttpClient client, String baseUrl, ObjectMapper objectMapper, List<Session> managers,
+            Session director, List<String> seriesKeys) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.managers = managers;
+        this.director = director;
+        this.seriesKeys = seriesKeys;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        long delayMillis = Long.parseLong(options.getOrDefault("delay-ms", "0"));
+        int hospitals = Integer.parseInt(options.getOrDefault("hospitals", "10"));
+        int managersPerHospital = Integer.parseInt(options.getOrDefault("managers-per-hospital", "2"));
+        int seriesPerHospital = Integer.parseInt(options.getOrDefault("series", "12"));
+        int points = Integer.parseInt(options.getOrDefault("points", "30"));
+        String mongoUri = options.get("mongo-uri");
+
+        MongoServer mongoServer = null;
+        LatencyProxy proxy = null;
+        if (mongoUri == null) {
+            mongoServer = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = mongoServer.bind();
+            int port = address.getPort();
+            if (delayMillis > 0) {
+                proxy = new LatencyProxy(address, delayMillis);
+                port = proxy.port();
+            }
+            mongoUri = "mongodb://127.0.0.1:" + port + "/hospital_kpi";
+        }
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + options.getOrDefault("tomcat-threads", "200"),
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--logging.level.root=WARN",
+                "--logging.level.com.kpi.hospital=WARN"));
+        if (mongoServer != null) {
+            // the in-memory server cannot explain, so sampled slow-query plans would only fail and log
+            springArgs.add("--slow-query-log.enabled=false");
+        }
+        if (options.containsKey("bcrypt-strength")) {
+            springArgs.add("--auth.password-hashing.bcrypt-strength=" + options.get("bcrypt-strength"));
+        }
+        try (ConfigurableApplicationContext context = new SpringApplication(HospitalKpiBackendApplication.class)
+                .run(springArgs.toArray(String[]::new))) {
+            MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+            List<String> hospitalIds = seed(context, hospitals, managersPerHospital, seriesPerHospital, points);
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            KpiLoadTest loadTest = login(client, "http://127.0.0.1:" + port, context.getBean(ObjectMapper.class),
+                    hospitalIds, managersPerHospital, seriesPerHospital);
+
+            Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-s", "5")));
+            Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-s", "30")));
+            for (String scenario : options.getOrDefault("scenario", "mix,contention").split(",")) {
+                switch (scenario) {
+                    case "mix" -> loadTest.runMix(options, warmup, duration);
+                    case "contention" -> loadTest.runContention(options, duration, mongoTemplate, hospitalIds.get(0));
+                    default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+                }
+            }
+        } finally {
+            if (proxy != null) {
+                proxy.close();
+            }
+            if (mongoServer != null) {
+                mongoServer.shutdownNow();
+            }
+        }
+        System.exit(0);
+    }
+
+    private void runMix(Map<String, String> options, Duration warmup, Duration duration) throws Exception {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : options.getOrDefault("mix", "login:5,submit:20,history:35,dashboard:25,leaderboard:15")
+                .split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        Supplier<Operation> mix = () -> {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    return operation(weight.getKey());
+                }
+            }
+            throw new IllegalStateException();
+        };
+        String mode = options.getOrDefault("mode", "closed");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1024"));
+
+        Stats discarded = new Stats();
+        Stats stats = new Stats();
+        if (mode.equals("open")) {
+            openLoop(mix, rate, maxInFlight, warmup, discarded);
+            openLoop(mix, rate, maxInFlight, duration, stats);
+        } else {
+            closedLoop(mix, concurrency, warmup, discarded);
+            closedLoop(mix, concurrency, duration, stats);
+        }
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", mode);
+        if (mode.equals("open")) {
+            settings.put("targetRps", rate);
+            settings.put("shed", stats.shed.sum());
+        } else {
+            settings.put("concurrency", concurrency);
+        }
+        stats.print("mix", settings, objectMapper);
+    }
+
+    private void runContention(Map<String, String> options, Duration duration, MongoTemplate mongoTemplate,
+            String hospitalId) throws Exception {
+        int submitters = Integer.parseInt(options.getOrDefault("submitters", "64"));
+        Session manager = managers.stream()
+                .filter(session -> hospitalId.equals(session.hospitalId()))
+                .findFirst()
+                .orElseThrow();
+        Supplier<Operation> submit = () -> new Operation("contended-submit", () -> post("/kpis", manager,
+                Map.of("hospitalId", hospitalId, "department", "ICU", "metric", CONTENDED_METRIC, "unit", "%",
+                        "value", BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(40, 100)))));
+        Stats stats = new Stats();
+        closedLoop(submit, submitters, duration, stats);
+
+        Query series = new Query(Criteria.where("hospitalId").is(hospitalId).and("department").is("ICU")
+                .and("metric").is(CONTENDED_METRIC));
+        List<KpiSeries> stored = mongoTemplate.find(series, KpiSeries.class);
+        long persisted = stored.stream().mapToLong(row -> row.getHistory() == null ? 0 : row.getHistory().size()).sum();
+        long acknowledged = stats.acknowledged("contended-submit");
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", "closed");
+        settings.put("concurrency", submitters);
+        settings.put("acknowledged", acknowledged);
+        settings.put("persistedPoints", persisted);
+        settings.put("lostUpdates", Math.max(0, acknowledged - persisted));
+        settings.put("seriesDocuments", stored.size());
+        stats.print("contention", settings, objectMapper);
+    }
+
+    private Operation operation(String name) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Session manager = managers.get(random.nextInt(managers.size()));
+        return switch (name) {
+            case "login" -> new Operation(name, () -> post("/auth/login", null,
+                    Map.of("email", manager.email(), "password", PASSWORD)));
+            case "submit" -> {
+                String[] key = seriesKeys.get(random.nextInt(seriesKeys.size())).split("/");
+                yield new Operation(name, () -> post("/kpis", manager, Map.of(
+                        "hospitalId", manager.hospitalId(), "department", key[0], "metric", key[1], "unit", "%",
+                        "value", BigDecimal.valueOf(random.nextInt(4000, 10000), 2))));
+            }
+            case "history" -> new Operation(name, () -> get("/kpis/history/" + manager.hospitalId(), manager));
+            case "dashboard" -> new Operation(name, () -> get("/dashboard/summary",
+                    random.nextInt(4) == 0 ? director : manager));
+            case "leaderboard" -> new Operation(name, () -> get("/leaderboard", director));
+            default -> throw new IllegalArgumentException("Unknown operation " + name);
+        };
+    }
+
+    private void closedLoop(Supplier<Operation> operations, int concurrency, Duration duration, Stats stats)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        stats.start();
+        for (int i = 0; i < concurrency; i++) {
+            next(operations, deadline, stats, done);
+        }
+        done.await(duration.toSeconds() + 120, TimeUnit.SECONDS);
+        stats.stop();
+    }
+
+    private void next(Supplier<Operation> operations, long deadline, Stats stats, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        Operation operation = operations.get();
+        long startedAt = System.nanoTime();
+        operation.call().whenComplete((response, failure) -> {
+            stats.record(operation.name(), startedAt, failure == null ? response.statusCode() : -1);
+            long backoffSeconds = failure == null ? retryAfterSeconds(response) : 0;
+            if (backoffSeconds > 0) {
+                CompletableFuture.delayedExecutor(backoffSeconds, TimeUnit.SECONDS)
+                        .execute(() -> next(operations, deadline, stats, done));
+            } else {
+                next(operations, deadline, stats, done);
+            }
+        });
+    }
+
+    private static long retryAfterSeconds(HttpResponse<?> response) {
+        if (response.statusCode() != 503) {
+            return 0;
+        }
+        return response.headers().firstValue("Retry-After").map(value -> {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        }).orElse(0L);
+    }
+
+    private void openLoop(Supplier<Operation> operations, double rate, int maxInFlight, Duration duration,
+            Stats stats) throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+        long intended = startedAt;
+        stats.start();
+        while (intended < deadline) {
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate * 1e9);
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                stats.shed.increment();
+                continue;
+            }
+            Operation operation = operations.get();
+            long scheduledAt = intended;
+            operation.call().whenComplete((response, failure) -> {
+                inFlight.decrementAndGet();
+                stats.record(operation.name(), scheduledAt, failure == null ? response.statusCode() : -1);
+            });
+        }
+        while (inFlight.get() > 0 && System.nanoTime() < deadline + TimeUnit.SECONDS.toNanos(120)) {
+            Thread.sleep(10);
+        }
+        stats.stop();
+    }
+
+    private CompletableFuture<HttpResponse<Void>> get(String path, Session session) {
+        return client.sendAsync(request(path, session).GET().build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private CompletableFuture<HttpResponse<Void>> post(String path, Session session, Map<String, Object> body) {
+        try {
+            HttpRequest.Builder request = request(path, session)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, Session session) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (session != null) {
+            request.header("Authorization", "Bearer " + session.token());
+        }
+        return request;
+    }
+
+    private static List<String> seed(ConfigurableApplicationContext context, int hospitals, int managersPerHospital,
+            int seriesPerHospital, int points) {
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        users.add(User.builder().email(DIRECTOR).password(passwordHash).roles(Set.of(RoleType.DIRECTOR))
+                .active(true).build());
+        List<String> hospitalIds = new ArrayList<>();
+        List<KpiSeries> series = new ArrayList<>();
+        for (int h = 0; h < hospitals; h++) {
+            Hospital hospital = mongoTemplate.insert(Hospital.builder()
+                    .name("Load Test Hospital " + h)
+                    .code("LT" + h)
+                    .build());
+            hospitalIds.add(hospital.getId());
+            for (int m = 0; m < managersPerHospital; m++) {
+                users.add(User.builder().email(managerEmail(h, m)).password(passwordHash)
+                        .roles(Set.of(RoleType.MANAGER)).hospitalId(hospital.getId()).active(true).build());
+            }
+            for (int s = 0; s < seriesPerHospital; s++) {
+                KpiSeries row = SyntheticKpiData.series(hospital.getId(), s, points);
+                row.setId(null);
+                row.setDepartment(DEPARTMENTS.get(s % DEPARTMENTS.size()));
+                row.setMetric(seriesMetric(s));
+                row.setUpdatedAt(Instant.now());
+                series.add(row);
+            }
+        }
+        mongoTemplate.insertAll(users);
+        mongoTemplate.insertAll(series);
+        context.getBean(HospitalDirectory.class).reload();
+        return hospitalIds;
+    }
+
+    private static KpiLoadTest login(HttpClient client, String baseUrl, ObjectMapper objectMapper,
+            List<String> hospitalIds, int managersPerHospital, int seriesPerHospital) throws Exception {
+        List<Session> managers = new ArrayList<>();
+        for (int h = 0; h < hospitalIds.size(); h++) {
+            for (int m = 0; m < managersPerHospital; m++) {
+                String email = managerEmail(h, m);
+                managers.add(new Session(email, hospitalIds.get(h), token(client, baseUrl, objectMapper, email)));
+            }
+        }
+        Session director = new Session(DIRECTOR, null, token(client, baseUrl, objectMapper, DIRECTOR));
+        List<String> seriesKeys = new ArrayList<>();
+        for (int s = 0; s < seriesPerHospital; s++) {
+            seriesKeys.add(DEPARTMENTS.get(s % DEPARTMENTS.size()) + "/" + seriesMetric(s));
+        }
+        return new KpiLoadTest(client, baseUrl, objectMapper, managers, director, seriesKeys);
+    }
+
+    private static String token(HttpClient client, String baseUrl, ObjectMapper objectMapper, String email)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static String managerEmail(int hospital, int manager) {
+        return "manager" + manager + ".h" + hospital + "@load.test";
+    }
+
+    private static String seriesMetric(int index) {
+        return METRICS.get(index % METRICS.size()) + "_" + index;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Session(String email, String hospitalId, String token) {
+    }
+
+    private record Operation(String name, Supplier<CompletableFuture<HttpResponse<Void>>> request) {
+
+        CompletableFuture<HttpResponse<Void>> call() {
+            return request.get();
+        }
+    }
+
+    private static final class Stats {
+
+        private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, LongAdder>> errors = new ConcurrentHashMap<>();
+        private final LongAdder shed = new LongAdder();
+        private final AtomicLong startedAt = new AtomicLong();
+        private final AtomicLong stoppedAt = new AtomicLong();
+
+        void start() {
+            startedAt.set(System.nanoTime());
+        }
+
+        void stop() {
+            stoppedAt.set(System.nanoTime());
+        }
+
+        void record(String endpoint, long startedAtNanos, int status) {
+            if (status >= 200 && status < 300) {
+                long micros = Math.max(1, (System.nanoTime() - startedAtNanos) / 1_000);
+                latencies.computeIfAbsent(endpoint, key -> new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3))
+                        .recordValue(Math.min(micros, TimeUnit.MINUTES.toMicros(5)));
+            } else {
+                errors.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(status, key -> new LongAdder())
+                        .increment();
+            }
+        }
+
+        long acknowledged(String endpoint) {
+            Histogram histogram = latencies.get(endpoint);
+            return histogram == null ? 0 : histogram.getTotalCount();
+        }
+
+        void print(String scenario, Map<String, Object> settings, ObjectMapper objectMapper) throws Exception {
+            double seconds = (stoppedAt.get() - startedAt.get()) / 1e9;
+            Set<String> endpoints = new TreeSet<>(latencies.keySet());
+            endpoints.addAll(errors.keySet());
+            Histogram all = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+            long allErrors = 0;
+            for (String endpoint : endpoints) {
+                Histogram histogram = latencies.containsKey(endpoint)
+                        ? latencies.get(endpoint)
+                        : new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+                all.add(histogram);
+                long endpointErrors = errorCount(endpoint);
+                allErrors += endpointErrors;
+                System.out.println(objectMapper.writeValueAsString(
+                        line(scenario, endpoint, histogram, endpointErrors, errorsByStatus(endpoint), seconds)));
+            }
+            Map<String, Object> summary = line(scenario, "all", all, allErrors, Map.of(), seconds);
+            summary.remove("errorsByStatus");
+            summary.putAll(settings);
+            System.out.println(objectMapper.writeValueAsString(summary));
+        }
+
+        private long errorCount(String endpoint) {
+            return errors.getOrDefault(endpoint, Map.of()).values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        private Map<String, Long> errorsByStatus(String endpoint) {
+            Map<String, Long> byStatus = new TreeMap<>();
+            errors.getOrDefault(endpoint, Map.of()).forEach((status, count) -> byStatus.put(
+                    status == -1 ? "transport" : Integer.toString(status), count.sum()));
+            return byStatus;
+        }
+
+        private static Map<String, Object> line(String scenario, String endpoint, Histogram histogram, long errors,
+                Map<String, Long> errorsByStatus, double seconds) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("scenario", scenario);
+            line.put("endpoint", endpoint);
+            line.put("requests", histogram.getTotalCount() + errors);
+            line.put("errors", errors);
+            line.put("errorsByStatus", errorsByStatus);
+            line.put("throughputRps", round(histogram.getTotalCount() / seconds));
+            line.put("p50Ms", millis(histogram, 50));
+            line.put("p95Ms", millis(histogram, 95));
+            line.put("p99Ms", millis(histogram, 99));
+            line.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+            return line;
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getTotalCount() == 0 ? 0 : round(histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+final class LatencyProxy implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final InetSocketAddress upstream;
+    private final long delayMillis;
+
+    LatencyProxy(InetSocketAddress upstream, long delayMillis) throws IOException {
+        this.serverSocket = new ServerSocket(0);
+        this.upstream = upstream;
+        this.delayMillis = delayMillis;
+        Thread acceptor = new Thread(this::acceptLoop, "latency-proxy-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket(upstream.getHostString(), upstream.getPort());
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                pump(client, server, 0);
+                pump(server, client, delayMillis);
+            } catch (IOException ex) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Proxy accept failed: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void pump(Socket from, Socket to, long delayMillis) {
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    if (delayMillis > 0) {
+                        Thread.sleep(delayMillis);
+                    }
+                    out.write(buffer, 0, read);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException ex) {
+                // connection closed by either side
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "latency-proxy-pump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
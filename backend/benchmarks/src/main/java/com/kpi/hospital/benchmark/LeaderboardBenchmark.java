@@ -0,0 +1,91 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.dto.LeaderboardEntry;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.service.impl.LeaderboardServiceImpl;
+import com.kpi.hospital.tenancy.TenancyProperties;
+import com.kpi.hospital.tenancy.TenantRouter;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    @Param({"10", "50"})
+    public int hospitals;
+
+    @Param({"12"})
+    public int seriesPerHospital;
+
+    @Param({"30"})
+    public int points;
+
+    private MongoServer server;
+    private MongoClient client;
+    private LeaderboardServiceImpl leaderboardService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "leaderboard_benchmark");
+        List<Hospital> rows = new ArrayList<>();
+        List<KpiSeries> series = new ArrayList<>();
+        for (int h = 0; h < hospitals; h++) {
+            String hospitalId = "H" + h;
+            rows.add(Hospital.builder().id(hospitalId).code(hospitalId).name("Hospital " + h).build());
+            series.addAll(SyntheticKpiData.hospital(hospitalId, seriesPerHospital, points));
+        }
+        mongoTemplate.insertAll(rows);
+        mongoTemplate.insertAll(series);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HospitalDirectory hospitalDirectory = new HospitalDirectory(mongoTemplate, meterRegistry);
+        hospitalDirectory.reload();
+        TenantRouter tenantRouter = new TenantRouter(new TenancyProperties(), hospitalDirectory, null, meterRegistry);
+        leaderboardService = new LeaderboardServiceImpl(mongoTemplate, hospitalDirectory,
+                new KpiDataVersions(mongoTemplate, tenantRouter), tenantRouter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> leaderboard() {
+        return leaderboardService.getLeaderboard();
+    }
+}
@@ -0,0 +1,229 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+public final class ReadApiLoadComparison {
+
+    private static final String EMAIL = "director@hospital-kpi.ai";
+    private static final String PASSWORD = "Director#1";
+
+    private ReadApiLoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        long delayMillis = Long.parseLong(options.getOrDefault("delay-ms", "20"));
+        int tomcatThreads = Integer.parseInt(options.getOrDefault("tomcat-threads", "32"));
+        int[] concurrencyLevels = Arrays.stream(options.getOrDefault("concurrency", "32,128,512").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-s", "10")));
+        int seriesCount = Integer.parseInt(options.getOrDefault("series", "12"));
+        int pointsPerSeries = Integer.parseInt(options.getOrDefault("points", "30"));
+
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        try (LatencyProxy proxy = new LatencyProxy(mongoAddress, delayMillis)) {
+            SpringApplication application = new SpringApplication(HospitalKpiBackendApplication.class);
+            try (ConfigurableApplicationContext context = application.run(
+                    "--server.port=0",
+                    "--server.tomcat.threads.max=" + tomcatThreads,
+                    "--server.tomcat.max-connections=20000",
+                    "--server.tomcat.accept-count=1000",
+                    "--spring.data.mongodb.uri=mongodb://127.0.0.1:" + proxy.port() + "/hospital_kpi",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.kpi.hospital=WARN")) {
+                String hospitalId = seed(context, seriesCount, pointsPerSeries);
+                int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+                String baseUrl = "http://127.0.0.1:" + port;
+                String token = login(client, baseUrl, context.getBean(ObjectMapper.class));
+                for (String path : List.of("/kpis/history/" + hospitalId, "/reactive/kpis/history/" + hospitalId)) {
+                    run(client, baseUrl + path, token, 16, Duration.ofSeconds(3));
+                    for (int concurrency : concurrencyLevels) {
+                        Result result = run(client, baseUrl + path, token, concurrency, duration);
+                        System.out.println(result.toJson(path.startsWith("/reactive") ? "reactive" : "blocking",
+                                concurrency, delayMillis, tomcatThreads));
+                    }
+                }
+            }
+        } finally {
+            mongoServer.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    private static String seed(ConfigurableApplicationContext context, int seriesCount, int pointsPerSeries) {
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        mongoTemplate.insert(User.builder()
+                .email(EMAIL)
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(Set.of(RoleType.DIRECTOR))
+                .active(true)
+                .build());
+        Hospital hospital = mongoTemplate.insert(Hospital.builder().name("Load Test General").code("LTG").build());
+        List<KpiSeries> series = new ArrayList<>();
+        List<String> departments = List.of("ICU", "ER", "Surgery", "Pediatrics");
+        List<String> metrics = List.of("bed_occupancy", "readmission_rate", "avg_length_of_stay");
+        for (int i = 0; i < seriesCount; i++) {
+            String department = departments.get(i % departments.size());
+            String metric = metrics.get(i % metrics.size()) + "_" + i;
+            List<KpiPoint> history = new ArrayList<>();
+            for (int day = 0; day < pointsPerSeries; day++) {
+                history.add(KpiPoint.builder()
+                        .timestamp(Instant.parse("2026-01-01T00:00:00Z").plus(Duration.ofDays(day)))
+                        .value(BigDecimal.valueOf(40 + (day * 7 % 23)))
+                        .submittedBy(EMAIL)
+                        .build());
+            }
+            series.add(KpiSeries.builder()
+                    .hospitalId(hospital.getId())
+                    .department(department)
+                    .metric(metric)
+                    .unit("%")
+                    .history(history)
+                    .build());
+        }
+        mongoTemplate.insertAll(series);
+        context.getBean(HospitalDirectory.class).reload();
+        return hospital.getId();
+    }
+
+    private static String login(HttpClient client, String baseUrl, ObjectMapper objectMapper) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(Map.of("email", EMAIL, "password", PASSWORD))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static Result run(HttpClient client, String url, String token, int concurrency, Duration duration)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicLong peakThreads = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                long serverThreads = Thread.getAllStackTraces().keySet().stream()
+                        .filter(thread -> !thread.getName().startsWith("latency-proxy"))
+                        .count();
+                peakThreads.accumulateAndGet(serverThreads, Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            loop(client, request, deadline, latencies, errors, done);
+        }
+        done.await(duration.toSeconds() + 120, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - startedAt;
+        sampler.interrupt();
+        return new Result(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), errors.get(), elapsed,
+                peakThreads.get(), peakHeap.get());
+    }
+
+    private static void loop(HttpClient client, HttpRequest request, long deadline,
+            ConcurrentLinkedQueue<Long> latencies, AtomicLong errors, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long sentAt = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            if (failure != null || response.statusCode() != 200) {
+                errors.incrementAndGet();
+            } else {
+                latencies.add(System.nanoTime() - sentAt);
+            }
+            loop(client, request, deadline, latencies, errors, done);
+        });
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Result(long[] sortedLatencies, long errors, long elapsedNanos, long peakThreads, long peakHeap) {
+
+        String toJson(String stack, int concurrency, long delayMillis, int tomcatThreads) {
+            double seconds = elapsedNanos / 1e9;
+            return String.format(Locale.ROOT,
+                    "{\"stack\":\"%s\",\"concurrency\":%d,\"mongoDelayMs\":%d,\"tomcatThreads\":%d,"
+                            + "\"requests\":%d,\"errors\":%d,\"throughputRps\":%.1f,\"p50Ms\":%.1f,"
+                            + "\"p99Ms\":%.1f,\"peakThreads\":%d,\"peakHeapMb\":%d,\"maxHeapMb\":%d}",
+                    stack, concurrency, delayMillis, tomcatThreads, sortedLatencies.length, errors,
+                    sortedLatencies.length / seconds, percentile(0.50), percentile(0.99), peakThreads,
+                    peakHeap >> 20, Runtime.getRuntime().maxMemory() >> 20);
+        }
+
+        private double percentile(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(quantile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
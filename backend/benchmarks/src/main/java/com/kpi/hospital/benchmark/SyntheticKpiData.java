@@ -0,0 +1,48 @@
+﻿package com.kpi.hospital.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+
+final class SyntheticKpiData {
+
+    static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private SyntheticKpiData() {
+    }
+
+    static KpiSeries series(String hospitalId, int index, int points) {
+        List<KpiPoint> history = new ArrayList<>(points);
+        for (int p = 0; p < points; p++) {
+            BigDecimal value = p == points - 1 && points > 1
+                    ? BigDecimal.valueOf(11200 + index % 100, 2)
+                    : BigDecimal.valueOf(6000 + (index * 37 + p * 13) % 4000, 2);
+            history.add(KpiPoint.builder()
+                    .timestamp(START.plusSeconds(3600L * p))
+                    .value(value)
+                    .submittedBy("manager@hospital-kpi.ai")
+                    .build());
+        }
+        return KpiSeries.builder()
+                .id(hospitalId + "-series-" + index)
+                .hospitalId(hospitalId)
+                .department("ICU")
+                .metric("metric_" + index)
+                .unit("%")
+                .target(BigDecimal.valueOf(85))
+                .history(history)
+                .build();
+    }
+
+    static List<KpiSeries> hospital(String hospitalId, int series, int points) {
+        List<KpiSeries> result = new ArrayList<>(series);
+        for (int s = 0; s < series; s++) {
+            result.add(series(hospitalId, s, points));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+﻿package com.kpi.hospital.analytics;
+
+public enum AggregateFunction {
+
+    AVG,
+    SUM,
+    MIN,
+    MAX,
+    COUNT;
+
+    public double apply(long count, double sum, double min, double max) {
+        return switch (this) {
+            case AVG -> count > 0 ? sum / count : Double.NaN;
+            case SUM -> sum;
+            case MIN -> min;
+            case MAX -> max;
+            case COUNT -> count;
+        };
+    }
+}
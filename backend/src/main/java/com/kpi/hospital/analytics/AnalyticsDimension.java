@@ -0,0 +1,24 @@
+﻿package com.kpi.hospital.analytics;
+
+public enum AnalyticsDimension {
+
+    HOSPITAL("hospitalId"),
+    CITY("city"),
+    COUNTRY("country"),
+    DEPARTMENT("department"),
+    METRIC("metric");
+
+    private final String field;
+
+    AnalyticsDimension(String field) {
+        this.field = field;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public boolean needsHospital() {
+        return this == HOSPITAL || this == CITY || this == COUNTRY;
+    }
+}
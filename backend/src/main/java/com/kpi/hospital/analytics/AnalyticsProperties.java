@@ -0,0 +1,30 @@
+﻿package com.kpi.hospital.analytics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "analytics")
+public class AnalyticsProperties {
+
+    @Valid
+    private ResultCache cache = new ResultCache();
+
+    @Data
+    public static class ResultCache {
+
+        private boolean enabled = true;
+
+        @Positive
+        private long maximumSize = 1_000;
+
+        @Positive
+        private long expireAfterWriteMs = 600_000;
+    }
+}
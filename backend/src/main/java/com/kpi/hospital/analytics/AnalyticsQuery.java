@@ -0,0 +1,111 @@
+﻿package com.kpi.hospital.analytics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.StringUtils;
+
+import com.kpi.hospital.dto.AnalyticsQueryRequest;
+
+public record AnalyticsQuery(
+        List<AnalyticsDimension> groupBy,
+        AggregateFunction aggregate,
+        Instant from,
+        Instant to,
+        SortedSet<String> metrics,
+        SortedSet<String> departments,
+        SortedSet<String> hospitalIds,
+        SortedSet<String> cities,
+        SortedSet<String> countries) {
+
+    public static AnalyticsQuery of(AnalyticsQueryRequest request) {
+        if (request.getFrom() != null && request.getTo() != null && !request.getFrom().isBefore(request.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Set<AnalyticsDimension> dimensions = EnumSet.noneOf(AnalyticsDimension.class);
+        if (request.getGroupBy() != null) {
+            request.getGroupBy().forEach(dimensions::add);
+        }
+        return new AnalyticsQuery(List.copyOf(dimensions), request.getAggregate(), request.getFrom(), request.getTo(),
+                normalise(request.getMetrics()), normalise(request.getDepartments()),
+                normalise(request.getHospitalIds()), normalise(request.getCities()),
+                normalise(request.getCountries()));
+    }
+
+    public boolean filtersHospitalAttributes() {
+        return cities != null || countries != null;
+    }
+
+    public List<String> groupFields() {
+        List<String> fields = new ArrayList<>();
+        if (groupBy.stream().anyMatch(AnalyticsDimension::needsHospital)) {
+            fields.add(AnalyticsDimension.HOSPITAL.field());
+        }
+        if (groupBy.contains(AnalyticsDimension.DEPARTMENT)) {
+            fields.add(AnalyticsDimension.DEPARTMENT.field());
+        }
+        if (groupBy.contains(AnalyticsDimension.METRIC)) {
+            fields.add(AnalyticsDimension.METRIC.field());
+        }
+        return fields;
+    }
+
+    public Aggregation toAggregation(Collection<String> hospitalScope) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        Criteria series = new Criteria();
+        if (hospitalScope != null) {
+            series.and("hospitalId").in(hospitalScope);
+        }
+        if (departments != null) {
+            series.and("department").in(departments);
+        }
+        if (metrics != null) {
+            series.and("metric").in(metrics);
+        }
+        operations.add(Aggregation.match(series));
+        operations.add(Aggregation.unwind("history"));
+        Criteria points = Criteria.where("history.value").ne(null);
+        if (from != null || to != null) {
+            Criteria window = points.and("history.timestamp");
+            if (from != null) {
+                window.gte(from);
+            }
+            if (to != null) {
+                window.lt(to);
+            }
+        }
+        operations.add(Aggregation.match(points));
+        AggregationExpression value = ConvertOperators.ToDouble.toDouble("$history.value");
+        operations.add(Aggregation.group(groupFields().toArray(String[]::new))
+                .count().as("count")
+                .sum(value).as("sum")
+                .min(value).as("min")
+                .max(value).as("max"));
+        return Aggregation.newAggregation(operations);
+    }
+
+    private static SortedSet<String> normalise(Set<String> values) {
+        if (values == null) {
+            return null;
+        }
+        SortedSet<String> normalised = new TreeSet<>();
+        for (String value : values) {
+            if (StringUtils.hasText(value)) {
+                normalised.add(value.trim());
+            }
+        }
+        return normalised.isEmpty() ? null : Collections.unmodifiableSortedSet(normalised);
+    }
+}
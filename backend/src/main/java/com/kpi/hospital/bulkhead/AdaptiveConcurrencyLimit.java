@@ -0,0 +1,105 @@
+﻿package com.kpi.hospital.bulkhead;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+public class AdaptiveConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final double longFactor;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            double backoffRatio, int longWindow) {
+        this(initialLimit, minLimit, maxLimit, tolerance, backoffRatio, longWindow, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            double backoffRatio, int longWindow, LongSupplier clock) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= min <= initial <= max limit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.longFactor = 2.0 / (longWindow + 1);
+        this.limit = initialLimit;
+        this.clock = clock;
+    }
+
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public synchronized void release(int inFlightAtStart, long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        long now = clock.getAsLong();
+        // Calls already in flight saw the old limit; shrink at most once per round trip.
+        boolean startedAfterDecrease = now - rttNanos >= lastDecreaseNanos;
+        if (dropped) {
+            if (startedAfterDecrease) {
+                decreaseTo(limit * backoffRatio, now);
+            }
+            return;
+        }
+        double rtt = Math.max(rttNanos, 1);
+        if (longRttNanos == 0) {
+            shortRttNanos = rtt;
+            longRttNanos = rtt;
+        }
+        shortRttNanos += (rtt - shortRttNanos) * 2.0 / (SHORT_WINDOW + 1);
+        longRttNanos += (rtt - longRttNanos) * longFactor;
+        if (longRttNanos > shortRttNanos * 2) {
+            // Latency recovered after a long overload; let the baseline follow it down faster.
+            longRttNanos *= 0.95;
+        }
+        if (inFlightAtStart * 2 < limit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        if (next >= limit) {
+            limit = Math.min(maxLimit, next);
+        } else if (startedAfterDecrease) {
+            decreaseTo(next, now);
+        }
+    }
+
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void decreaseTo(double next, long now) {
+        limit = Math.max(minLimit, next);
+        lastDecreaseNanos = now;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,151 @@
+﻿package com.kpi.hospital.bulkhead;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.kpi.hospital.coalescing.CoalescingListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class BulkheadFilter extends OncePerRequestFilter implements CoalescingListener {
+
+    private static final ThreadLocal<Permit> CURRENT = new ThreadLocal<>();
+
+    private final Map<Subsystem, AdaptiveConcurrencyLimit> limits = new EnumMap<>(Subsystem.class);
+    private final Map<Subsystem, Counter> rejected = new EnumMap<>(Subsystem.class);
+    private final String retryAfter;
+
+    public BulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.retryAfter = Integer.toString(properties.getRetryAfterSeconds());
+        for (Subsystem subsystem : Subsystem.values()) {
+            BulkheadProperties.Limit limit = properties.getLimits()
+                    .getOrDefault(subsystem, new BulkheadProperties.Limit());
+            AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(limit.getInitial(),
+                    limit.getMin(), limit.getMax(), properties.getTolerance(), properties.getBackoffRatio(),
+                    properties.getLongWindow());
+            limits.put(subsystem, concurrencyLimit);
+            Gauge.builder("kpi.bulkhead.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("subsystem", subsystem.tag())
+                    .register(meterRegistry);
+            Gauge.builder("kpi.bulkhead.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests currently admitted")
+                    .tag("subsystem", subsystem.tag())
+                    .register(meterRegistry);
+            rejected.put(subsystem, Counter.builder("kpi.bulkhead.rejected")
+                    .description("Requests shed with 503 because the subsystem was at its limit")
+                    .tag("subsystem", subsystem.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    AdaptiveConcurrencyLimit limit(Subsystem subsystem) {
+        return limits.get(subsystem);
+    }
+
+    @Override
+    public void onJoin(String name) {
+        // A caller parked on another request's computation holds no resources; free its slot for others.
+        Permit permit = CURRENT.get();
+        if (permit != null) {
+            permit.cancel();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Subsystem subsystem = Subsystem.of(request);
+        if (subsystem == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit limit = limits.get(subsystem);
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            rejected.get(subsystem).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Server is busy, please retry\",\"subsystem\":\""
+                    + subsystem.tag() + "\"}");
+            return;
+        }
+        Permit permit = new Permit(limit, inFlight, response);
+        CURRENT.set(permit);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            permit.release(true);
+            throw ex;
+        } finally {
+            CURRENT.remove();
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(permit);
+        } else {
+            permit.release(false);
+        }
+    }
+
+    private static final class Permit implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final int inFlight;
+        private final HttpServletResponse response;
+        private final long started = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveConcurrencyLimit limit, int inFlight, HttpServletResponse response) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.response = response;
+        }
+
+        void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(inFlight, System.nanoTime() - started, failed || response.getStatus() >= 500);
+            }
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                limit.cancel();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+﻿package com.kpi.hospital.bulkhead;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    @Positive
+    private int retryAfterSeconds = 1;
+
+    @DecimalMin("1.0")
+    private double tolerance = 1.5;
+
+    @DecimalMin("0.1")
+    @DecimalMax("1.0")
+    private double backoffRatio = 0.9;
+
+    @Positive
+    private int longWindow = 600;
+
+    private Map<Subsystem, Limit> limits = new EnumMap<>(Map.of(
+            Subsystem.INGESTION, new Limit(64, 32, 128),
+            Subsystem.AI_INSIGHTS, new Limit(16, 8, 32),
+            Subsystem.ANALYTICS, new Limit(32, 16, 64),
+            Subsystem.AUTH, new Limit(32, 16, 64)));
+
+    @Data
+    public static class Limit {
+
+        @Positive
+        private int initial;
+
+        @Positive
+        private int min;
+
+        @Positive
+        private int max;
+
+        public Limit() {
+            this(32, 16, 64);
+        }
+
+        public Limit(int initial, int min, int max) {
+            this.initial = initial;
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
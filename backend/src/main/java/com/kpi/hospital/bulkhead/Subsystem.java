@@ -0,0 +1,41 @@
+﻿package com.kpi.hospital.bulkhead;
+
+import org.springframework.http.HttpMethod;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum Subsystem {
+
+    INGESTION("ingestion"),
+    AI_INSIGHTS("ai-insights"),
+    ANALYTICS("analytics"),
+    AUTH("auth");
+
+    private final String tag;
+
+    Subsystem(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public static Subsystem of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/auth/")) {
+            return AUTH;
+        }
+        if (path.startsWith("/ai/") || path.startsWith("/ml-gateway")) {
+            return AI_INSIGHTS;
+        }
+        if (path.equals("/kpis") || path.startsWith("/kpis/")) {
+            return HttpMethod.GET.matches(request.getMethod()) ? ANALYTICS : INGESTION;
+        }
+        if (path.startsWith("/leaderboard") || path.startsWith("/dashboard/") || path.startsWith("/reactive/")
+                || path.startsWith("/benchmarks/") || path.startsWith("/analytics/")) {
+            return ANALYTICS;
+        }
+        return null;
+    }
+}
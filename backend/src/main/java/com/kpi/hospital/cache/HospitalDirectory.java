@@ -0,0 +1,215 @@
+﻿package com.kpi.hospital.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.invalidation.InvalidationEvent;
+import com.kpi.hospital.invalidation.InvalidationListener;
+import com.kpi.hospital.model.FederatedLearningState;
+import com.kpi.hospital.model.Hospital;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class HospitalDirectory implements SmartInitializingSingleton, InvalidationListener {
+
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter incrementalRefreshes;
+    private final Counter fullReloads;
+    private volatile Snapshot snapshot = Snapshot.of(Map.of(), 0L, Instant.EPOCH);
+
+    public HospitalDirectory(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.hits = Counter.builder("hospital.directory.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("hospital.directory.lookups").tag("result", "miss").register(meterRegistry);
+        this.incrementalRefreshes = Counter.builder("hospital.directory.refreshes").tag("type", "incremental")
+                .register(meterRegistry);
+        this.fullReloads = Counter.builder("hospital.directory.refreshes").tag("type", "full")
+                .register(meterRegistry);
+        Gauge.builder("hospital.directory.size", this, directory -> directory.snapshot.byId.size())
+                .register(meterRegistry);
+        Gauge.builder("hospital.directory.version", this, directory -> directory.snapshot.version)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+        log.info("Loaded {} hospitals into the directory", snapshot.byId.size());
+    }
+
+    public Optional<Hospital> findById(String id) {
+        return record(id == null ? null : snapshot.byId.get(id));
+    }
+
+    public Optional<Hospital> findByCode(String code) {
+        return record(code == null ? null : snapshot.byCode.get(code));
+    }
+
+    public Collection<Hospital> all() {
+        return snapshot.byId.values();
+    }
+
+    public long count() {
+        return snapshot.byId.size();
+    }
+
+    public long countByState(FederatedLearningState state) {
+        return snapshot.countsByState.getOrDefault(state, 0L);
+    }
+
+    public long version() {
+        return snapshot.version;
+    }
+
+    public long lastModified() {
+        return snapshot.highWaterMark.toEpochMilli();
+    }
+
+    public void put(Hospital hospital) {
+        putAll(List.of(hospital));
+    }
+
+    public synchronized void putAll(Collection<Hospital> hospitals) {
+        if (hospitals.isEmpty()) {
+            return;
+        }
+        Map<String, Hospital> byId = new HashMap<>(snapshot.byId);
+        Instant highWaterMark = snapshot.highWaterMark;
+        for (Hospital hospital : hospitals) {
+            byId.put(hospital.getId(), hospital);
+            highWaterMark = latest(highWaterMark, hospital.getUpdatedAt());
+        }
+        snapshot = Snapshot.of(byId, snapshot.version + 1, highWaterMark);
+    }
+
+    public synchronized void remove(String id) {
+        if (!snapshot.byId.containsKey(id)) {
+            return;
+        }
+        Map<String, Hospital> byId = new HashMap<>(snapshot.byId);
+        byId.remove(id);
+        snapshot = Snapshot.of(byId, snapshot.version + 1, snapshot.highWaterMark);
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.entity() == InvalidationEvent.Entity.HOSPITAL) {
+            refresh(event.key());
+        }
+    }
+
+    public void refresh(String id) {
+        Hospital hospital = mongoTemplate.findById(id, Hospital.class);
+        if (hospital != null) {
+            put(hospital);
+        } else {
+            remove(id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hospital-directory.refresh-interval-ms:30000}",
+            initialDelayString = "${hospital-directory.refresh-interval-ms:30000}")
+    public void refresh() {
+        Snapshot base = snapshot;
+        Query query = new Query(Criteria.where("updatedAt").gt(base.highWaterMark.minus(REFRESH_OVERLAP)));
+        List<Hospital> changed = mongoTemplate.find(query, Hospital.class);
+        incrementalRefreshes.increment();
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<String, Hospital> byId = new HashMap<>(base.byId);
+        Instant highWaterMark = base.highWaterMark;
+        for (Hospital hospital : changed) {
+            byId.put(hospital.getId(), hospital);
+            highWaterMark = latest(highWaterMark, hospital.getUpdatedAt());
+        }
+        apply(base, byId, highWaterMark);
+    }
+
+    @Scheduled(fixedDelayString = "${hospital-directory.full-reload-interval-ms:600000}",
+            initialDelayString = "${hospital-directory.full-reload-interval-ms:600000}")
+    public void reload() {
+        Snapshot base = snapshot;
+        Map<String, Hospital> byId = new HashMap<>();
+        Instant highWaterMark = Instant.EPOCH;
+        for (Hospital hospital : mongoTemplate.findAll(Hospital.class)) {
+            byId.put(hospital.getId(), hospital);
+            highWaterMark = latest(highWaterMark, hospital.getUpdatedAt());
+        }
+        fullReloads.increment();
+        apply(base, byId, latest(highWaterMark, base.highWaterMark));
+    }
+
+    private synchronized void apply(Snapshot base, Map<String, Hospital> byId, Instant highWaterMark) {
+        Snapshot current = snapshot;
+        if (current != base) {
+            Set<String> ids = new HashSet<>(base.byId.keySet());
+            ids.addAll(current.byId.keySet());
+            for (String id : ids) {
+                Hospital now = current.byId.get(id);
+                if (now == base.byId.get(id)) {
+                    continue;
+                }
+                if (now != null) {
+                    byId.put(id, now);
+                } else {
+                    byId.remove(id);
+                }
+            }
+            highWaterMark = latest(highWaterMark, current.highWaterMark);
+        }
+        boolean modified = !byId.equals(current.byId);
+        snapshot = Snapshot.of(byId, modified ? current.version + 1 : current.version, highWaterMark);
+    }
+
+    private Optional<Hospital> record(Hospital hospital) {
+        (hospital != null ? hits : misses).increment();
+        return Optional.ofNullable(hospital);
+    }
+
+    private static Instant latest(Instant current, Instant candidate) {
+        return candidate != null && candidate.isAfter(current) ? candidate : current;
+    }
+
+    private record Snapshot(Map<String, Hospital> byId, Map<String, Hospital> byCode,
+            Map<FederatedLearningState, Long> countsByState, long version, Instant highWaterMark) {
+
+        static Snapshot of(Map<String, Hospital> byId, long version, Instant highWaterMark) {
+            Map<String, Hospital> byCode = new HashMap<>();
+            Map<FederatedLearningState, Long> countsByState = new EnumMap<>(FederatedLearningState.class);
+            for (Hospital hospital : byId.values()) {
+                if (hospital.getCode() != null) {
+                    byCode.put(hospital.getCode(), hospital);
+                }
+                if (hospital.getFederatedState() != null) {
+                    countsByState.merge(hospital.getFederatedState(), 1L, Long::sum);
+                }
+            }
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byCode), countsByState, version, highWaterMark);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+﻿package com.kpi.hospital.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.invalidation.InvalidationEvent;
+import com.kpi.hospital.invalidation.InvalidationListener;
+import com.kpi.hospital.tenancy.TenantRouter;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class KpiDataVersions implements SmartInitializingSingleton, InvalidationListener {
+
+    public static final String COLLECTION = "kpi_data_versions";
+
+    private final MongoTemplate mongoTemplate;
+    private final TenantRouter tenantRouter;
+    private final Map<String, Long> hospitalVersions = new ConcurrentHashMap<>();
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    public KpiDataVersions(MongoTemplate mongoTemplate, TenantRouter tenantRouter) {
+        this.mongoTemplate = mongoTemplate;
+        this.tenantRouter = tenantRouter;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+        log.info("KPI data versions loaded for {} hospitals at version {}", hospitalVersions.size(),
+                globalVersion.get());
+    }
+
+    public long hospitalVersion(String hospitalId) {
+        return hospitalVersions.getOrDefault(hospitalId, 0L);
+    }
+
+    public long globalVersion() {
+        return globalVersion.get();
+    }
+
+    public String tag(String kind, long... versions) {
+        // Weak, because Tomcat will not gzip a response that carries a strong ETag.
+        StringBuilder tag = new StringBuilder("W/\"").append(kind);
+        for (long version : versions) {
+            tag.append('-').append(Long.toString(version, 36));
+        }
+        return tag.append('"').toString();
+    }
+
+    public void markChanged(String hospitalId) {
+        // Counters live in Mongo, so every replica and every restart derives the same tag for the same data.
+        Document row = tenantRouter.forHospital(hospitalId, () -> mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(hospitalId)),
+                new Update().inc("version", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COLLECTION));
+        record(row);
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.entity() == InvalidationEvent.Entity.KPI) {
+            record(tenantRouter.forHospital(event.key(),
+                    () -> mongoTemplate.findById(event.key(), Document.class, COLLECTION)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kpi-data-versions.refresh-interval-ms:2000}",
+            initialDelayString = "${kpi-data-versions.refresh-interval-ms:2000}")
+    public void refresh() {
+        // One small row per hospital; re-reading all of them also picks up writes whose broadcast was missed.
+        tenantRouter.fanOutAll(() -> mongoTemplate.findAll(Document.class, COLLECTION)).forEach(this::record);
+    }
+
+    private void record(Document row) {
+        if (row == null || row.get("version") == null) {
+            return;
+        }
+        long version = ((Number) row.get("version")).longValue();
+        hospitalVersions.compute(String.valueOf(row.get("_id")), (hospitalId, current) -> {
+            if (current != null && current >= version) {
+                return current;
+            }
+            globalVersion.addAndGet(version - (current != null ? current : 0L));
+            return version;
+        });
+    }
+}
@@ -0,0 +1,125 @@
+﻿package com.kpi.hospital.cluster;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.ClusterMember;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class ClusterMembership implements SmartInitializingSingleton {
+
+    private final ClusterProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<MembershipListener> listeners;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+    private final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "cluster-membership");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile HashRing ring;
+
+    public ClusterMembership(ClusterProperties properties, MongoTemplate mongoTemplate,
+            ObjectProvider<MembershipListener> listeners, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.listeners = listeners;
+        this.ring = HashRing.of(List.of(nodeId), properties.getVirtualNodes());
+        Gauge.builder("kpi.cluster.members", this, membership -> membership.ring.members().size())
+                .description("Live nodes on the hash ring")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        heartbeat();
+        executor.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatIntervalMs(),
+                properties.getHeartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Joined the cluster as {} with {} live nodes", nodeId, ring.members().size());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void leave() {
+        executor.shutdownNow();
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(nodeId)), ClusterMember.class);
+        } catch (RuntimeException ex) {
+            log.debug("Could not deregister {}: {}", nodeId, ex.getMessage());
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+
+    public boolean owns(SeriesKey key) {
+        return ring.owner(key.id()).equals(nodeId);
+    }
+
+    public List<ClusterMember> members() {
+        return mongoTemplate.find(live(), ClusterMember.class);
+    }
+
+    void heartbeat() {
+        try {
+            Instant now = Instant.now();
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(nodeId)), new Update()
+                    .set("host", host())
+                    .set("heartbeatAt", now)
+                    .setOnInsert("startedAt", now), ClusterMember.class);
+            Set<String> live = new HashSet<>();
+            live.add(nodeId);
+            members().forEach(member -> live.add(member.getNodeId()));
+            if (!live.equals(ring.members())) {
+                HashRing previous = ring;
+                ring = HashRing.of(live, properties.getVirtualNodes());
+                log.info("Cluster membership changed from {} to {} nodes", previous.members().size(), live.size());
+                listeners.orderedStream().forEach(listener -> listener.onRingChange(previous, ring));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cluster heartbeat failed: {}", ex.getMessage());
+        }
+    }
+
+    private Query live() {
+        return Query.query(Criteria.where("heartbeatAt")
+                .gt(Instant.now().minusMillis(properties.getMemberTtlMs())));
+    }
+
+    private static String host() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            return "unknown";
+        }
+    }
+}
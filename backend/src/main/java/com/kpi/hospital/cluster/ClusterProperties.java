@@ -0,0 +1,35 @@
+﻿package com.kpi.hospital.cluster;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+
+    @Positive
+    private long heartbeatIntervalMs = 2000;
+
+    @Positive
+    private long memberTtlMs = 10000;
+
+    @Positive
+    private int virtualNodes = 64;
+
+    @Positive
+    private long queuePollIntervalMs = 250;
+
+    @Positive
+    private int queueBatchSize = 500;
+
+    @Positive
+    private long checkpointIntervalMs = 10000;
+
+    @Positive
+    private double anomalyZScore = 3.0;
+}
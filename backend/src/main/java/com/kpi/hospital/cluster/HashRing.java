@@ -0,0 +1,87 @@
+﻿package com.kpi.hospital.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public final class HashRing {
+
+    private final NavigableMap<Long, String> points;
+    private final Set<String> members;
+
+    private HashRing(NavigableMap<Long, String> points, Set<String> members) {
+        this.points = points;
+        this.members = members;
+    }
+
+    public static HashRing of(Collection<String> nodes, int virtualNodes) {
+        TreeMap<Long, String> points = new TreeMap<>();
+        Set<String> members = new TreeSet<>(nodes);
+        for (String node : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // Ties are resolved by node id so that every node builds the same ring.
+                points.merge(token(node + "#" + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        return new HashRing(points, Set.copyOf(members));
+    }
+
+    public Set<String> members() {
+        return members;
+    }
+
+    public String owner(String key) {
+        if (points.isEmpty()) {
+            throw new IllegalStateException("The hash ring has no members");
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(token(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    public List<long[]> ranges(String node) {
+        List<long[]> ranges = new ArrayList<>();
+        Long previous = points.isEmpty() ? null : points.lastKey();
+        for (Map.Entry<Long, String> point : points.entrySet()) {
+            if (point.getValue().equals(node)) {
+                if (point.getKey().equals(points.firstKey())) {
+                    if (previous != Long.MAX_VALUE) {
+                        ranges.add(new long[] {previous + 1, Long.MAX_VALUE});
+                    }
+                    ranges.add(new long[] {Long.MIN_VALUE, point.getKey()});
+                } else {
+                    ranges.add(new long[] {previous + 1, point.getKey()});
+                }
+            }
+            previous = point.getKey();
+        }
+        return ranges;
+    }
+
+    public double share(String node) {
+        double owned = 0;
+        for (long[] range : ranges(node)) {
+            owned += ((double) range[1] - (double) range[0]) + 1;
+        }
+        return owned / Math.pow(2, 64);
+    }
+
+    public static long token(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,6 @@
+﻿package com.kpi.hospital.cluster;
+
+public interface MembershipListener {
+
+    void onRingChange(HashRing previous, HashRing current);
+}
@@ -0,0 +1,14 @@
+﻿package com.kpi.hospital.cluster;
+
+import com.kpi.hospital.model.KpiSeries;
+
+public record SeriesKey(String hospitalId, String department, String metric) {
+
+    public static SeriesKey of(KpiSeries series) {
+        return new SeriesKey(series.getHospitalId(), series.getDepartment(), series.getMetric());
+    }
+
+    public String id() {
+        return hospitalId + "/" + department + "/" + metric;
+    }
+}
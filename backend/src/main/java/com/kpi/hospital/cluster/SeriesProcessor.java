@@ -0,0 +1,276 @@
+﻿package com.kpi.hospital.cluster;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.SeriesObservation;
+import com.kpi.hospital.model.SeriesState;
+import com.kpi.hospital.repository.KpiSeriesRepository;
+import com.kpi.hospital.tenancy.TenantRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class SeriesProcessor implements SmartInitializingSingleton, MembershipListener {
+
+    private final ClusterProperties properties;
+    private final ClusterMembership membership;
+    private final MongoTemplate mongoTemplate;
+    private final KpiSeriesRepository kpiSeriesRepository;
+    private final TenantRouter tenantRouter;
+    private final MeterRegistry meterRegistry;
+    private final Map<SeriesKey, SeriesStatistics> owned = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "series-processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter appliedLocally;
+    private final Counter queued;
+    private final Counter dequeued;
+    private final Counter handedOff;
+
+    public SeriesProcessor(ClusterProperties properties, ClusterMembership membership, MongoTemplate mongoTemplate,
+            KpiSeriesRepository kpiSeriesRepository, TenantRouter tenantRouter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.membership = membership;
+        this.mongoTemplate = mongoTemplate;
+        this.kpiSeriesRepository = kpiSeriesRepository;
+        this.tenantRouter = tenantRouter;
+        this.meterRegistry = meterRegistry;
+        this.appliedLocally = observations("local");
+        this.queued = observations("queued");
+        this.dequeued = observations("dequeued");
+        this.handedOff = Counter.builder("kpi.cluster.series.handoffs")
+                .description("Series checkpointed and released to another node after a ring change")
+                .register(meterRegistry);
+        Gauge.builder("kpi.cluster.series.owned", owned, Map::size)
+                .description("Series whose state this node holds in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        executor.scheduleWithFixedDelay(this::drainQueue, properties.getQueuePollIntervalMs(),
+                properties.getQueuePollIntervalMs(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::checkpoint, properties.getCheckpointIntervalMs(),
+                properties.getCheckpointIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        owned.keySet().forEach(this::handOff);
+    }
+
+    public void observe(SeriesKey key, double value, Instant timestamp) {
+        if (membership.owns(key)) {
+            try {
+                // Loading a series reads Mongo; keep that and the detector off the request thread.
+                executor.execute(() -> applyOrQueue(key, value, timestamp));
+                return;
+            } catch (RejectedExecutionException ex) {
+                log.debug("Series processor is stopping; queueing {}", key.id());
+            }
+        }
+        queue(key, value, timestamp);
+    }
+
+    public Optional<SeriesStatistics> statistics(SeriesKey key) {
+        return Optional.ofNullable(owned.get(key));
+    }
+
+    public int ownedSeries() {
+        return owned.size();
+    }
+
+    public long queuedObservations() {
+        return mongoTemplate.count(new Query(), SeriesObservation.class);
+    }
+
+    @Override
+    public void onRingChange(HashRing previous, HashRing current) {
+        List<SeriesKey> lost = new ArrayList<>();
+        for (SeriesKey key : owned.keySet()) {
+            if (!current.owner(key.id()).equals(membership.nodeId())) {
+                lost.add(key);
+            }
+        }
+        lost.forEach(this::handOff);
+        if (!lost.isEmpty()) {
+            log.info("Handed off {} series after a ring change", lost.size());
+        }
+    }
+
+    void drainQueue() {
+        try {
+            List<long[]> ranges = membership.ring().ranges(membership.nodeId());
+            if (ranges.isEmpty()) {
+                return;
+            }
+            Criteria[] clauses = ranges.stream()
+                    .map(range -> Criteria.where("token").gte(range[0]).lte(range[1]))
+                    .toArray(Criteria[]::new);
+            Query claim = new Query(new Criteria().orOperator(clauses));
+            for (int i = 0; i < properties.getQueueBatchSize(); i++) {
+                // One document per claim, so two nodes that briefly disagree on the ring never apply it twice.
+                SeriesObservation observation = mongoTemplate.findAndRemove(claim, SeriesObservation.class);
+                if (observation == null) {
+                    return;
+                }
+                apply(new SeriesKey(observation.getHospitalId(), observation.getDepartment(),
+                        observation.getMetric()), observation.getValue(), observation.getTimestamp());
+                dequeued.increment();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Draining queued observations failed: {}", ex.getMessage());
+        }
+    }
+
+    void checkpoint() {
+        owned.forEach((key, statistics) -> {
+            SeriesState state;
+            synchronized (statistics) {
+                if (!statistics.dirty()) {
+                    return;
+                }
+                state = statistics.toState(key, membership.nodeId(), false);
+            }
+            try {
+                mongoTemplate.save(state);
+            } catch (RuntimeException ex) {
+                log.warn("Could not checkpoint {}: {}", key.id(), ex.getMessage());
+            }
+        });
+    }
+
+    private void applyOrQueue(SeriesKey key, double value, Instant timestamp) {
+        if (!membership.owns(key)) {
+            queue(key, value, timestamp);
+            return;
+        }
+        try {
+            apply(key, value, timestamp);
+            appliedLocally.increment();
+        } catch (RuntimeException ex) {
+            log.warn("Could not apply observation for {}: {}", key.id(), ex.getMessage());
+        }
+    }
+
+    private void queue(SeriesKey key, double value, Instant timestamp) {
+        try {
+            mongoTemplate.insert(SeriesObservation.builder()
+                    .token(HashRing.token(key.id()))
+                    .hospitalId(key.hospitalId())
+                    .department(key.department())
+                    .metric(key.metric())
+                    .value(value)
+                    .timestamp(timestamp)
+                    .origin(membership.nodeId())
+                    .build());
+            queued.increment();
+        } catch (RuntimeException ex) {
+            // The point is stored; the owner picks it up when it next rebuilds the series from history.
+            log.warn("Could not queue observation for {}: {}", key.id(), ex.getMessage());
+        }
+    }
+
+    private void apply(SeriesKey key, double value, Instant timestamp) {
+        SeriesStatistics statistics = owned.get(key);
+        if (statistics == null) {
+            SeriesStatistics loaded = load(key);
+            SeriesStatistics raced = owned.putIfAbsent(key, loaded);
+            statistics = raced != null ? raced : loaded;
+        }
+        double zScore;
+        synchronized (statistics) {
+            zScore = statistics.observe(value, timestamp);
+        }
+        if (zScore > properties.getAnomalyZScore()) {
+            Counter.builder("kpi.cluster.series.anomalies")
+                    .description("Points the online detector flagged as far from their series' running mean")
+                    .tag("metric", key.metric())
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("{} = {} is {} standard deviations from the running mean", key.id(), value, zScore);
+        }
+    }
+
+    private SeriesStatistics load(SeriesKey key) {
+        SeriesState handoff = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(key.id()).and("handedOff").is(true)),
+                new Update().set("handedOff", false).set("owner", membership.nodeId()), SeriesState.class);
+        if (handoff != null) {
+            SeriesStatistics statistics = SeriesStatistics.from(handoff);
+            statistics.baseline(handoff.getAsOf());
+            return statistics;
+        }
+        SeriesStatistics statistics = new SeriesStatistics();
+        Instant latest = null;
+        Optional<KpiSeries> series = tenantRouter.forHospital(key.hospitalId(), () -> kpiSeriesRepository
+                .findByHospitalIdAndDepartmentAndMetric(key.hospitalId(), key.department(), key.metric()));
+        if (series.isPresent() && series.get().getHistory() != null) {
+            for (KpiPoint point : series.get().getHistory()) {
+                if (point.getValue() != null) {
+                    statistics.observe(point.getValue().doubleValue(), point.getTimestamp());
+                }
+                if (point.getTimestamp() != null && (latest == null || point.getTimestamp().isAfter(latest))) {
+                    latest = point.getTimestamp();
+                }
+            }
+        }
+        statistics.baseline(latest);
+        return statistics;
+    }
+
+    private void handOff(SeriesKey key) {
+        SeriesStatistics statistics = owned.remove(key);
+        if (statistics == null) {
+            return;
+        }
+        try {
+            synchronized (statistics) {
+                mongoTemplate.save(statistics.toState(key, membership.nodeId(), true));
+            }
+            handedOff.increment();
+        } catch (RuntimeException ex) {
+            log.warn("Could not hand off {}; its next owner rebuilds it from history: {}", key.id(),
+                    ex.getMessage());
+        }
+    }
+
+    private Counter observations(String route) {
+        return Counter.builder("kpi.cluster.series.observations")
+                .description("KPI points fed to series state, by how they reached the owner")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+﻿package com.kpi.hospital.cluster;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import com.kpi.hospital.model.SeriesState;
+
+public final class SeriesStatistics {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double last = Double.NaN;
+    private Instant asOf;
+    private Instant baseline;
+    private boolean dirty;
+
+    static SeriesStatistics from(SeriesState state) {
+        SeriesStatistics statistics = new SeriesStatistics();
+        statistics.count = state.getCount();
+        statistics.mean = state.getMean();
+        statistics.m2 = state.getM2();
+        statistics.min = state.getMin();
+        statistics.max = state.getMax();
+        statistics.last = state.getLast();
+        statistics.asOf = state.getAsOf();
+        return statistics;
+    }
+
+    void baseline(Instant baseline) {
+        this.baseline = baseline;
+    }
+
+    double observe(double value, Instant timestamp) {
+        // History comes back from Mongo in milliseconds; compare at that precision or the point that
+        // was just loaded with the series is counted a second time.
+        if (baseline != null && timestamp != null && !timestamp.truncatedTo(ChronoUnit.MILLIS).isAfter(baseline)) {
+            return Double.NaN;
+        }
+        double standardDeviation = standardDeviation();
+        double zScore = count > 1 && standardDeviation > 0 ? Math.abs(value - mean) / standardDeviation : Double.NaN;
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+        last = value;
+        if (timestamp != null && (asOf == null || timestamp.isAfter(asOf))) {
+            asOf = timestamp;
+        }
+        dirty = true;
+        return zScore;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double standardDeviation() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double last() {
+        return last;
+    }
+
+    boolean dirty() {
+        return dirty;
+    }
+
+    SeriesState toState(SeriesKey key, String owner, boolean handedOff) {
+        dirty = false;
+        return SeriesState.builder()
+                .key(key.id())
+                .owner(owner)
+                .handedOff(handedOff)
+                .count(count)
+                .mean(mean)
+                .m2(m2)
+                .min(min)
+                .max(max)
+                .last(last)
+                .asOf(asOf)
+                .checkpointedAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,6 @@
+﻿package com.kpi.hospital.coalescing;
+
+public interface CoalescingListener {
+
+    void onJoin(String name);
+}
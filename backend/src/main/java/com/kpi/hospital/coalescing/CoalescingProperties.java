@@ -0,0 +1,17 @@
+﻿package com.kpi.hospital.coalescing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "coalescing")
+public class CoalescingProperties {
+
+    @Positive
+    private long joinTimeoutMs = 30000;
+}
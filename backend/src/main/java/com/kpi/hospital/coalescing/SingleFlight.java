@@ -0,0 +1,90 @@
+﻿package com.kpi.hospital.coalescing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class SingleFlight {
+
+    public static final String METRIC = "kpi.coalescing.calls";
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final CoalescingProperties properties;
+    private final List<CoalescingListener> listeners;
+
+    public SingleFlight(MeterRegistry meterRegistry, CoalescingProperties properties,
+            List<CoalescingListener> listeners) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.listeners = listeners;
+        Gauge.builder("kpi.coalescing.in.flight", inFlight, Map::size)
+                .description("Computations currently shared by coalesced callers")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Object key, Supplier<T> computation) {
+        List<Object> flightKey = Arrays.asList(name, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, own);
+        if (existing != null) {
+            counter(name, "coalesced").increment();
+            listeners.forEach(listener -> listener.onJoin(name));
+            return (T) await(name, existing);
+        }
+        counter(name, "leader").increment();
+        try {
+            T result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            own.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    private Object await(String name, CompletableFuture<Object> flight) {
+        try {
+            return flight.get(properties.getJoinTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            counter(name, "timed-out").increment();
+            throw new RejectedExecutionException("Timed out waiting for an in-flight " + name + " call");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight " + name + " call", ex);
+        }
+    }
+
+    private Counter counter(String name, String role) {
+        return Counter.builder(METRIC)
+                .description("Calls to coalesced reads, by whether they ran the computation, joined one in flight or "
+                        + "gave up waiting for it")
+                .tags("name", name, "role", role)
+                .register(meterRegistry);
+    }
+}
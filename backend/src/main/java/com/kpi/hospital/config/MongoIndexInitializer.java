@@ -0,0 +1,62 @@
+﻿package com.kpi.hospital.config;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "mongo-indexes", name = "background-creation", havingValue = "true")
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Thread thread = new Thread(this::ensureIndexes, "mongo-index-initializer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void ensureIndexes() {
+        long started = System.currentTimeMillis();
+        int ensured = ensureIndexes(mongoTemplate, mappingContext, entity -> true);
+        log.info("Ensured {} indexes in {} ms", ensured, System.currentTimeMillis() - started);
+    }
+
+    public static int ensureIndexes(MongoTemplate mongoTemplate, MongoMappingContext mappingContext,
+            Predicate<MongoPersistentEntity<?>> filter) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        int ensured = 0;
+        for (MongoPersistentEntity<?> entity : List.copyOf(mappingContext.getPersistentEntities())) {
+            if (!entity.isAnnotationPresent(Document.class) || !filter.test(entity)) {
+                continue;
+            }
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                try {
+                    mongoTemplate.indexOps(entity.getType()).ensureIndex(index);
+                    ensured++;
+                } catch (RuntimeException ex) {
+                    log.warn("Could not ensure index {} on {}: {}", index.getIndexKeys().toJson(),
+                            entity.getCollection(), ex.getMessage());
+                }
+            }
+        }
+        return ensured;
+    }
+}
@@ -0,0 +1,35 @@
+﻿package com.kpi.hospital.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kpi.hospital.dto.AnalyticsQueryRequest;
+import com.kpi.hospital.dto.AnalyticsQueryResponse;
+import com.kpi.hospital.service.AnalyticsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @PostMapping("/query")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR')")
+    @Operation(summary = "Aggregate KPI values in a time window by city, country, hospital, department or metric")
+    public ResponseEntity<AnalyticsQueryResponse> query(@Valid @RequestBody AnalyticsQueryRequest request) {
+        return ResponseEntity.ok(analyticsService.query(request));
+    }
+}
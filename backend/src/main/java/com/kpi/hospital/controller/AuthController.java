@@ -1,16 +1,23 @@
 ﻿package com.kpi.hospital.controller;
 
+import java.security.Principal;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
 import com.kpi.hospital.dto.LoginRequest;
 import com.kpi.hospital.dto.LoginResponse;
 import com.kpi.hospital.dto.RegisterUserRequest;
+import com.kpi.hospital.dto.TokenRevocationRequest;
 import com.kpi.hospital.dto.UserDto;
 import com.kpi.hospital.service.AuthService;
 
@@ -30,8 +37,8 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Authenticate user and issue JWT token")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.login(request).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/register")
@@ -40,4 +47,27 @@ public class AuthController {
     public ResponseEntity<UserDto> register(@Valid @RequestBody RegisterUserRequest request) {
         return ResponseEntity.ok(authService.register(request));
     }
+
+    @PostMapping("/register/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Register up to 1000 users in one batch, reporting errors per row (Admin only)")
+    public ResponseEntity<BulkProvisioningResponse> registerAll(
+            @Valid @RequestBody BulkProvisioningRequest<RegisterUserRequest> request) {
+        return ResponseEntity.ok(authService.registerAll(request));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke the caller's current token")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        authService.logout((String) authentication.getCredentials());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Revoke a token by its identifier (Admin only)")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody TokenRevocationRequest request, Principal principal) {
+        authService.revoke(request, principal.getName());
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,44 @@
+﻿package com.kpi.hospital.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kpi.hospital.dto.PeerBenchmarkResponse;
+import com.kpi.hospital.service.BenchmarkService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/benchmarks")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Benchmarks")
+public class BenchmarkController {
+
+    private final BenchmarkService benchmarkService;
+
+    @GetMapping("/metrics/{metric}")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get the network-wide distribution of a metric, optionally within one department")
+    public ResponseEntity<PeerBenchmarkResponse> getDistribution(@PathVariable String metric,
+            @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(benchmarkService.getDistribution(metric, department));
+    }
+
+    @GetMapping("/hospitals/{hospitalId}/metrics/{metric}")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get a hospital's percentile rank for a metric among its peers")
+    public ResponseEntity<PeerBenchmarkResponse> getHospitalBenchmark(@PathVariable String hospitalId,
+            @PathVariable String metric,
+            @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(benchmarkService.getHospitalBenchmark(hospitalId, metric, department));
+    }
+}
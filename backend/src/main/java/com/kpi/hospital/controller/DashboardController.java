@@ -1,13 +1,14 @@
 ﻿package com.kpi.hospital.controller;
 
-import java.security.Principal;
-
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.kpi.hospital.dto.DashboardSummaryResponse;
 import com.kpi.hospital.service.DashboardService;
@@ -28,7 +29,18 @@ public class DashboardController {
     @GetMapping("/summary")
     @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
     @Operation(summary = "Get role-aware dashboard summary")
-    public ResponseEntity<DashboardSummaryResponse> getSummary(Principal principal) {
-        return ResponseEntity.ok(dashboardService.getSummaryForUser(principal.getName()));
+    public ResponseEntity<DashboardSummaryResponse> getSummary(Authentication authentication,
+            WebRequest webRequest) {
+        String etag = dashboardService.getSummaryETag(authentication);
+        if (etag == null) {
+            return ResponseEntity.ok(dashboardService.getSummaryForUser(authentication.getName()));
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(dashboardService.getSummaryForUser(authentication.getName()));
     }
 }
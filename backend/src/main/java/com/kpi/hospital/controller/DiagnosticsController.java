@@ -0,0 +1,67 @@
+﻿package com.kpi.hospital.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kpi.hospital.dto.ClusterJobResponse;
+import com.kpi.hospital.dto.ClusterStatusResponse;
+import com.kpi.hospital.dto.JobExecutionResponse;
+import com.kpi.hospital.dto.SlowQueryResponse;
+import com.kpi.hospital.service.DiagnosticsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/diagnostics")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Diagnostics")
+public class DiagnosticsController {
+
+    private final DiagnosticsService diagnosticsService;
+
+    @GetMapping("/slow-queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List recent slow Mongo operations with their caller and query plan")
+    public ResponseEntity<List<SlowQueryResponse>> getSlowQueries(
+            @RequestParam(required = false) String collection,
+            @RequestParam(required = false) @Min(0) Long minDurationMs,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(diagnosticsService.getSlowQueries(collection, minDurationMs, limit));
+    }
+
+    @GetMapping("/cluster")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Show live nodes, their share of the series hash ring and this node's series state")
+    public ResponseEntity<ClusterStatusResponse> getClusterStatus() {
+        return ResponseEntity.ok(diagnosticsService.getClusterStatus());
+    }
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List cluster jobs with their lease holder, fencing token, schedule and lag")
+    public ResponseEntity<List<ClusterJobResponse>> getClusterJobs() {
+        return ResponseEntity.ok(diagnosticsService.getClusterJobs());
+    }
+
+    @GetMapping("/jobs/{job}/executions")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List recent executions of a cluster job")
+    public ResponseEntity<List<JobExecutionResponse>> getJobExecutions(
+            @PathVariable String job,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(diagnosticsService.getJobExecutions(job, limit));
+    }
+}
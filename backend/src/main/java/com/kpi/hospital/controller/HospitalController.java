@@ -1,7 +1,5 @@
 ﻿package com.kpi.hospital.controller;
 
-import java.util.List;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -14,8 +12,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.HospitalRequest;
 import com.kpi.hospital.dto.HospitalResponse;
+import com.kpi.hospital.dto.HospitalSearchRequest;
 import com.kpi.hospital.service.HospitalService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,9 +36,9 @@ public class HospitalController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR')")
-    @Operation(summary = "List all hospitals")
-    public ResponseEntity<List<HospitalResponse>> getHospitals() {
-        return ResponseEntity.ok(hospitalService.getHospitals());
+    @Operation(summary = "List hospitals with keyset pagination, filters and field projection")
+    public ResponseEntity<CursorPage<HospitalResponse>> getHospitals(@Valid HospitalSearchRequest request) {
+        return ResponseEntity.ok(hospitalService.getHospitals(request));
     }
 
     @GetMapping("/{id}")
@@ -53,6 +55,14 @@ public class HospitalController {
         return ResponseEntity.ok(hospitalService.createOrUpdateHospital(request));
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create up to 1000 hospitals in one batch, reporting errors per row")
+    public ResponseEntity<BulkProvisioningResponse> createHospitals(
+            @Valid @RequestBody BulkProvisioningRequest<HospitalRequest> request) {
+        return ResponseEntity.ok(hospitalService.createHospitals(request));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update a hospital")
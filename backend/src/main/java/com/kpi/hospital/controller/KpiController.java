@@ -1,8 +1,9 @@
 ﻿package com.kpi.hospital.controller;
 
 import java.security.Principal;
-import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -10,12 +11,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.kpi.hospital.dto.KpiResponse;
 import com.kpi.hospital.dto.KpiSubmissionRequest;
 import com.kpi.hospital.service.KpiService;
+import com.kpi.hospital.util.WireFormat;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -40,8 +44,25 @@ public class KpiController {
 
     @GetMapping("/history/{hospitalId}")
     @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
-    @Operation(summary = "Get KPI history for hospital")
-    public ResponseEntity<List<KpiResponse>> getHistory(@PathVariable String hospitalId) {
-        return ResponseEntity.ok(kpiService.getKpiHistoryByHospital(hospitalId));
+    @Operation(summary = "Get KPI history for hospital",
+            description = "Accept application/vnd.kpi.columnar+json, application/cbor or application/x-jackson-smile "
+                    + "for parallel timestamp/value arrays per series; anything else returns one object per point.")
+    public ResponseEntity<?> getHistory(@PathVariable String hospitalId,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                        WebRequest webRequest) {
+        WireFormat format = WireFormat.negotiate(accept);
+        String etag = kpiService.getKpiHistoryETag(hospitalId, format);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+        if (format.isColumnar()) {
+            return response.body(kpiService.getKpiHistoryColumnsByHospital(hospitalId));
+        }
+        return response.body(kpiService.getKpiHistoryByHospital(hospitalId));
     }
 }
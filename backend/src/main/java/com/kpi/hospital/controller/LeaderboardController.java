@@ -2,12 +2,14 @@
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.kpi.hospital.dto.LeaderboardEntry;
 import com.kpi.hospital.service.LeaderboardService;
@@ -28,7 +30,14 @@ public class LeaderboardController {
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR')")
     @Operation(summary = "Get hospital efficiency leaderboard")
-    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard() {
-        return ResponseEntity.ok(leaderboardService.getLeaderboard());
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(WebRequest webRequest) {
+        String etag = leaderboardService.getLeaderboardETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(leaderboardService.getLeaderboard());
     }
 }
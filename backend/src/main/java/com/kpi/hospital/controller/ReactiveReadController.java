@@ -0,0 +1,83 @@
+﻿package com.kpi.hospital.controller;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.kpi.hospital.dto.AiAnomalyResponse;
+import com.kpi.hospital.dto.AiPredictionResponse;
+import com.kpi.hospital.dto.AiRecommendationResponse;
+import com.kpi.hospital.dto.DashboardSummaryResponse;
+import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.LeaderboardEntry;
+import com.kpi.hospital.service.ReactiveReadService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/reactive")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Reactive reads")
+@ConditionalOnProperty(prefix = "reactive-api", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    @GetMapping("/kpis/history/{hospitalId}")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get KPI history for hospital (non-blocking)")
+    public Mono<ResponseEntity<List<KpiResponse>>> getHistory(@PathVariable String hospitalId) {
+        return reactiveReadService.getKpiHistoryByHospital(hospitalId).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/leaderboard")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR')")
+    @Operation(summary = "Get hospital efficiency leaderboard (non-blocking)")
+    public Mono<ResponseEntity<List<LeaderboardEntry>>> getLeaderboard() {
+        return reactiveReadService.getLeaderboard().map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ai/predictions")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get AI predictions for KPIs (non-blocking)")
+    public Mono<ResponseEntity<List<AiPredictionResponse>>> getPredictions(
+            @RequestParam(required = false) String hospitalId) {
+        return reactiveReadService.getPredictions(hospitalId).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ai/anomalies")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get AI-detected anomalies (non-blocking)")
+    public Mono<ResponseEntity<List<AiAnomalyResponse>>> getAnomalies(
+            @RequestParam(required = false) String hospitalId) {
+        return reactiveReadService.getAnomalies(hospitalId).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/ai/recommendations")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get AI recommendations (non-blocking)")
+    public Mono<ResponseEntity<List<AiRecommendationResponse>>> getRecommendations(
+            @RequestParam(required = false) String hospitalId) {
+        return reactiveReadService.getRecommendations(hospitalId).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/dashboard/summary")
+    @PreAuthorize("hasAnyRole('ADMIN','DIRECTOR','MANAGER')")
+    @Operation(summary = "Get role-aware dashboard summary (non-blocking)")
+    public Mono<ResponseEntity<DashboardSummaryResponse>> getSummary(Principal principal) {
+        return reactiveReadService.getSummaryForUser(principal.getName()).map(ResponseEntity::ok);
+    }
+}
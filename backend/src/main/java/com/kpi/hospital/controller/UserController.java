@@ -1,7 +1,5 @@
 ﻿package com.kpi.hospital.controller;
 
-import java.util.List;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -13,8 +11,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.UpdateUserRequest;
 import com.kpi.hospital.dto.UserDto;
+import com.kpi.hospital.dto.UserSearchRequest;
 import com.kpi.hospital.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,9 +33,9 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "List all users")
-    public ResponseEntity<List<UserDto>> getUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    @Operation(summary = "List users with keyset pagination, filters and field projection")
+    public ResponseEntity<CursorPage<UserDto>> getUsers(@Valid UserSearchRequest request) {
+        return ResponseEntity.ok(userService.getUsers(request));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,170 @@
+﻿package com.kpi.hospital.diagnostics;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.SlowQuery;
+import com.kpi.hospital.tenancy.TenantContext;
+import com.mongodb.ServerAddress;
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class SlowQueryListener implements CommandListener {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "count", "distinct",
+            "findAndModify", "update", "delete");
+    private static final Set<String> WRITE_COMMANDS = Set.of("findAndModify", "update", "delete");
+    private static final Set<String> IGNORED_FIELDS = Set.of("lsid", "txnNumber", "autocommit", "startTransaction",
+            "readConcern", "writeConcern", "maxTimeMS");
+    private static final String APPLICATION_PACKAGE = "com.kpi.hospital.";
+    private static final String DIAGNOSTICS_PACKAGE = SlowQueryListener.class.getPackageName() + ".";
+    private static final String TENANCY_PACKAGE = TenantContext.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final SlowQueryProperties properties;
+    private final SlowQueryRecorder recorder;
+    private final Map<Integer, StartedCommand> started = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+        if (collection == null || collection.equals(SlowQuery.COLLECTION)) {
+            return;
+        }
+        // The driver releases the command's buffer once this returns, so only a sample of commands is copied.
+        BsonDocument captured = QUERY_COMMANDS.contains(event.getCommandName())
+                && ThreadLocalRandom.current().nextDouble() < properties.getCaptureSampleRate()
+                ? capture(event.getCommandName(), event.getCommand())
+                : null;
+        started.put(event.getRequestId(), new StartedCommand(collection, captured));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event, event.getElapsedTime(TimeUnit.MILLISECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event, event.getElapsedTime(TimeUnit.MILLISECONDS), true);
+    }
+
+    private void completed(CommandEvent event, long elapsedMs, boolean failed) {
+        StartedCommand command = started.remove(event.getRequestId());
+        if (command == null || elapsedMs < properties.getThresholdMs()) {
+            return;
+        }
+        String[] callSite = callSite();
+        BsonDocument query = command.captured() != null
+                ? queryOf(event.getCommandName(), command.collection(), command.captured())
+                : null;
+        recorder.record(new SlowCommand(event.getConnectionDescription().getServerAddress(), event.getDatabaseName(),
+                command.collection(), event.getCommandName(), query, elapsedMs, failed, callSite[0], callSite[1]));
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName);
+        if (target != null && target.isString()) {
+            return target.asString().getValue();
+        }
+        BsonValue collection = command.get("collection");
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    private static BsonDocument capture(String commandName, BsonDocument command) {
+        return switch (commandName) {
+            case "update" -> firstStatementFilter(command.get("updates")).clone();
+            case "delete" -> firstStatementFilter(command.get("deletes")).clone();
+            case "findAndModify" -> command.getDocument("query", new BsonDocument()).clone();
+            default -> command.clone();
+        };
+    }
+
+    private static BsonDocument queryOf(String commandName, String collection, BsonDocument captured) {
+        if (WRITE_COMMANDS.contains(commandName)) {
+            return new BsonDocument("find", new BsonString(collection)).append("filter", captured);
+        }
+        BsonDocument query = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : captured.entrySet()) {
+            if (!field.getKey().startsWith("$") && !IGNORED_FIELDS.contains(field.getKey())) {
+                query.append(field.getKey(), field.getValue());
+            }
+        }
+        return query;
+    }
+
+    private static BsonDocument firstStatementFilter(BsonValue statements) {
+        if (statements instanceof BsonArray array && !array.isEmpty() && array.get(0).isDocument()) {
+            return array.get(0).asDocument().getDocument("q", new BsonDocument());
+        }
+        return new BsonDocument();
+    }
+
+    private static String[] callSite() {
+        return STACK_WALKER.walk(frames -> {
+            String repositoryMethod = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (repositoryMethod == null) {
+                    Class<?> repository = repositoryInterface(type);
+                    if (repository != null) {
+                        repositoryMethod = repository.getSimpleName() + "." + frame.getMethodName();
+                        continue;
+                    }
+                }
+                String className = frame.getClassName();
+                if (className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(DIAGNOSTICS_PACKAGE)
+                        && !className.startsWith(TENANCY_PACKAGE) && !className.contains("$$")
+                        && !frame.getMethodName().startsWith("lambda$")) {
+                    return new String[] {type.getSimpleName() + "." + frame.getMethodName() + ":"
+                            + frame.getLineNumber(), repositoryMethod};
+                }
+            }
+            return new String[] {null, repositoryMethod};
+        });
+    }
+
+    private static Class<?> repositoryInterface(Class<?> type) {
+        if (type.isInterface() && Repository.class.isAssignableFrom(type)
+                && type.getName().startsWith(APPLICATION_PACKAGE)) {
+            return type;
+        }
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(candidate)
+                        && candidate.getName().startsWith(APPLICATION_PACKAGE)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private record StartedCommand(String collection, BsonDocument captured) {
+    }
+
+    record SlowCommand(ServerAddress server, String database, String collection, String commandName, BsonDocument query, long durationMs,
+            boolean failed, String caller, String repositoryMethod) {
+    }
+}
@@ -0,0 +1,16 @@
+﻿package com.kpi.hospital.diagnostics;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryLogConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryLogCustomizer(SlowQueryListener slowQueryListener) {
+        return builder -> builder.addCommandListener(slowQueryListener);
+    }
+}
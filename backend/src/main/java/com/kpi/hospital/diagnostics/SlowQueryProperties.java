@@ -0,0 +1,39 @@
+﻿package com.kpi.hospital.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "slow-query-log")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    @PositiveOrZero
+    private long thresholdMs = 100;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double captureSampleRate = 0.1;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double explainSampleRate = 0.2;
+
+    @Positive
+    private long cappedSizeBytes = 16L * 1024 * 1024;
+
+    @Positive
+    private long maxDocuments = 10_000;
+
+    @Positive
+    private int queueCapacity = 256;
+}
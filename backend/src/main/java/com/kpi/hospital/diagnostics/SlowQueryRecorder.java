@@ -0,0 +1,207 @@
+﻿package com.kpi.hospital.diagnostics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.SlowQuery;
+import com.kpi.hospital.tenancy.TenantDatabases;
+import com.mongodb.client.MongoDatabase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class SlowQueryRecorder implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Set<String> INDEX_STAGES = Set.of("IXSCAN", "IDHACK", "EXPRESS_IXSCAN", "COUNT_SCAN",
+            "DISTINCT_SCAN");
+    private static final BsonString REDACTED = new BsonString("?");
+
+    private final SlowQueryProperties properties;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final ObjectProvider<TenantDatabases> tenantDatabases;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Counter droppedCounter;
+
+    public SlowQueryRecorder(SlowQueryProperties properties, ObjectProvider<MongoTemplate> mongoTemplate,
+            ObjectProvider<TenantDatabases> tenantDatabases, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.tenantDatabases = tenantDatabases;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-recorder");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.droppedCounter = Counter.builder("mongodb.slow.dropped")
+                .description("Slow commands not recorded because the recorder queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        MongoTemplate template = mongoTemplate.getObject();
+        try {
+            if (!template.collectionExists(SlowQuery.class)) {
+                template.createCollection(SlowQuery.class, CollectionOptions.empty()
+                        .capped()
+                        .size(properties.getCappedSizeBytes())
+                        .maxDocuments(properties.getMaxDocuments()));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not create capped collection {}: {}", SlowQuery.COLLECTION, ex.getMessage());
+        }
+    }
+
+    void record(SlowQueryListener.SlowCommand command) {
+        Counter.builder("mongodb.slow.commands")
+                .description("Mongo commands slower than the slow-query threshold")
+                .tags("collection", command.collection(), "command", command.commandName())
+                .register(meterRegistry)
+                .increment();
+        try {
+            executor.execute(() -> persist(command));
+        } catch (RuntimeException ex) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void persist(SlowQueryListener.SlowCommand command) {
+        SlowQuery.SlowQueryBuilder slowQuery = SlowQuery.builder()
+                .recordedAt(Instant.now())
+                .database(command.database())
+                .collection(command.collection())
+                .command(command.commandName())
+                .durationMs(command.durationMs())
+                .failed(command.failed())
+                .caller(command.caller())
+                .repositoryMethod(command.repositoryMethod());
+        if (executor.isShutdown()) {
+            return;
+        }
+        MongoTemplate template = mongoTemplate.getObject();
+        if (command.query() != null) {
+            slowQuery.shape(Document.parse(shapeOf(command.query()).toJson()));
+            if (ThreadLocalRandom.current().nextDouble() < properties.getExplainSampleRate()) {
+                explain(template, command, slowQuery);
+            }
+        }
+        try {
+            template.insert(slowQuery.build());
+        } catch (RuntimeException ex) {
+            log.warn("Could not record slow {} on {}: {}", command.commandName(), command.collection(),
+                    ex.getMessage());
+        }
+    }
+
+    private void explain(MongoTemplate template, SlowQueryListener.SlowCommand command,
+            SlowQuery.SlowQueryBuilder slowQuery) {
+        try {
+            // A tenant on its own cluster must be explained there, not on the shared client.
+            MongoDatabase database = tenantDatabases.getObject().database(command.server(), command.database())
+                    .orElseGet(() -> template.getMongoDatabaseFactory().getMongoDatabase(command.database()));
+            Document plan = database.runCommand(new BsonDocument("explain", command.query())
+                    .append("verbosity", new BsonString("queryPlanner")));
+            Set<String> stages = new LinkedHashSet<>();
+            Set<String> indexes = new LinkedHashSet<>();
+            collectPlan(plan, stages, indexes);
+            slowQuery.planSummary(String.join(" > ", stages))
+                    .indexes(new ArrayList<>(indexes))
+                    .collectionScan(stages.contains("COLLSCAN"));
+            if (stages.contains("COLLSCAN") && stages.stream().noneMatch(INDEX_STAGES::contains)) {
+                log.warn("Slow {} on {} from {} scanned the whole collection", command.commandName(),
+                        command.collection(), command.caller());
+            }
+        } catch (RuntimeException ex) {
+            slowQuery.explainError(ex.getMessage());
+        }
+    }
+
+    private static void collectPlan(Object node, Set<String> stages, Set<String> indexes) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if ("rejectedPlans".equals(entry.getKey())) {
+                    continue;
+                }
+                if ("stage".equals(entry.getKey()) && entry.getValue() instanceof String stage) {
+                    stages.add(stage);
+                } else if ("indexName".equals(entry.getKey()) && entry.getValue() instanceof String index) {
+                    indexes.add(index);
+                } else {
+                    collectPlan(entry.getValue(), stages, indexes);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectPlan(item, stages, indexes));
+        }
+    }
+
+    static BsonDocument shapeOf(BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            shape.append(field.getKey(), first ? field.getValue() : redact(field.getValue()));
+            first = false;
+        }
+        return shape;
+    }
+
+    private static BsonValue redact(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument redacted = new BsonDocument();
+            value.asDocument().forEach((key, nested) -> redacted.append(key, redact(nested)));
+            return redacted;
+        }
+        if (value.isArray()) {
+            BsonArray redacted = new BsonArray();
+            for (BsonValue nested : value.asArray()) {
+                BsonValue item = redact(nested);
+                if (!redacted.contains(item)) {
+                    redacted.add(item);
+                }
+            }
+            return redacted;
+        }
+        return REDACTED;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,39 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.kpi.hospital.analytics.AggregateFunction;
+import com.kpi.hospital.analytics.AnalyticsDimension;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import lombok.Data;
+
+@Data
+public class AnalyticsQueryRequest {
+
+    @NotNull
+    @Size(max = 5)
+    private List<AnalyticsDimension> groupBy = new ArrayList<>();
+
+    @NotNull
+    private AggregateFunction aggregate = AggregateFunction.AVG;
+
+    private Instant from;
+
+    private Instant to;
+
+    private Set<String> metrics;
+
+    private Set<String> departments;
+
+    private Set<String> hospitalIds;
+
+    private Set<String> cities;
+
+    private Set<String> countries;
+}
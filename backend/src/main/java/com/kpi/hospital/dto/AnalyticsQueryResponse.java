@@ -0,0 +1,30 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.kpi.hospital.analytics.AggregateFunction;
+import com.kpi.hospital.analytics.AnalyticsDimension;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class AnalyticsQueryResponse {
+
+    List<AnalyticsDimension> groupBy;
+    AggregateFunction aggregate;
+    Instant from;
+    Instant to;
+    List<AnalyticsRow> rows;
+
+    @Value
+    @Builder
+    public static class AnalyticsRow {
+        Map<String, String> group;
+        double value;
+        long count;
+    }
+}
@@ -0,0 +1,16 @@
+﻿package com.kpi.hospital.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import lombok.Data;
+
+@Data
+public class BulkProvisioningRequest<T> {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<T> items;
+}
@@ -0,0 +1,19 @@
+﻿package com.kpi.hospital.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BulkProvisioningResponse {
+
+    int requested;
+
+    int created;
+
+    int failed;
+
+    List<BulkRowResult> results;
+}
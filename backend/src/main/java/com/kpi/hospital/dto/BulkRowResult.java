@@ -0,0 +1,20 @@
+﻿package com.kpi.hospital.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRowResult {
+
+    int index;
+
+    String key;
+
+    String id;
+
+    String error;
+}
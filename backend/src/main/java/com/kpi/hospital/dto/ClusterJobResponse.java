@@ -0,0 +1,23 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+
+import com.kpi.hospital.model.JobExecutionStatus;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ClusterJobResponse {
+
+    String name;
+    long intervalMs;
+    String owner;
+    long fencingToken;
+    Instant leaseExpiresAt;
+    Instant lastRunAt;
+    JobExecutionStatus lastStatus;
+    Instant nextRunAt;
+    long lagMs;
+}
@@ -0,0 +1,28 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ClusterStatusResponse {
+
+    String nodeId;
+    int ownedSeries;
+    long queuedObservations;
+    List<ClusterMemberStatus> members;
+
+    @Value
+    @Builder
+    public static class ClusterMemberStatus {
+        String nodeId;
+        String host;
+        Instant startedAt;
+        Instant heartbeatAt;
+        boolean onRing;
+        double share;
+    }
+}
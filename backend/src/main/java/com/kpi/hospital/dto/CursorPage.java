@@ -0,0 +1,15 @@
+﻿package com.kpi.hospital.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class CursorPage<T> {
+
+    List<T> items;
+
+    String nextCursor;
+}
@@ -36,4 +36,6 @@ public class HospitalRequest {
     private FederatedLearningState federatedState;
 
     private Map<String, Object> metadata;
+
+    private String tenantId;
 }
@@ -3,6 +3,7 @@
 import java.util.Map;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.kpi.hospital.model.FederatedLearningState;
 
 import lombok.Builder;
@@ -10,6 +11,7 @@ import lombok.Value;
 
 @Value
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class HospitalResponse {
 
     String id;
@@ -22,4 +24,5 @@ public class HospitalResponse {
     String directorEmail;
     FederatedLearningState federatedState;
     Map<String, Object> metadata;
+    String tenantId;
 }
@@ -0,0 +1,32 @@
+﻿package com.kpi.hospital.dto;
+
+import java.util.Set;
+
+import com.kpi.hospital.model.FederatedLearningState;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import lombok.Data;
+
+@Data
+public class HospitalSearchRequest {
+
+    @Min(1)
+    @Max(500)
+    private int limit = 50;
+
+    private String cursor;
+
+    private String sort = "name";
+
+    private String direction = "asc";
+
+    private String country;
+
+    private String city;
+
+    private FederatedLearningState federatedState;
+
+    private Set<String> fields;
+}
@@ -0,0 +1,25 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+
+import com.kpi.hospital.model.JobExecutionStatus;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class JobExecutionResponse {
+
+    String id;
+    String job;
+    String owner;
+    long fencingToken;
+    Instant scheduledAt;
+    Instant startedAt;
+    Instant finishedAt;
+    long durationMs;
+    long lagMs;
+    JobExecutionStatus status;
+    String error;
+}
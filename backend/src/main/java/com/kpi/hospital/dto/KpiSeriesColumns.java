@@ -0,0 +1,20 @@
+﻿package com.kpi.hospital.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class KpiSeriesColumns {
+
+    String id;
+    String hospitalId;
+    String department;
+    String metric;
+    String unit;
+    BigDecimal target;
+    long[] timestamps;
+    double[] values;
+}
@@ -0,0 +1,24 @@
+﻿package com.kpi.hospital.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PeerBenchmarkResponse {
+
+    String metric;
+    String department;
+    long observations;
+    double min;
+    double max;
+    Map<String, Double> quantiles;
+    String hospitalId;
+    BigDecimal value;
+    Instant valueTimestamp;
+    Double percentileRank;
+}
@@ -0,0 +1,27 @@
+﻿package com.kpi.hospital.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class SlowQueryResponse {
+
+    String id;
+    Instant recordedAt;
+    String collection;
+    String command;
+    long durationMs;
+    boolean failed;
+    String caller;
+    String repositoryMethod;
+    Map<String, Object> shape;
+    String planSummary;
+    List<String> indexes;
+    Boolean collectionScan;
+    String explainError;
+}
@@ -0,0 +1,16 @@
+﻿package com.kpi.hospital.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import lombok.Data;
+
+@Data
+public class TokenRevocationRequest {
+
+    @NotBlank
+    private String tokenId;
+
+    private String subject;
+
+    private String reason;
+}
@@ -0,0 +1,32 @@
+﻿package com.kpi.hospital.dto;
+
+import java.util.Set;
+
+import com.kpi.hospital.model.RoleType;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import lombok.Data;
+
+@Data
+public class UserSearchRequest {
+
+    @Min(1)
+    @Max(500)
+    private int limit = 50;
+
+    private String cursor;
+
+    private String sort = "email";
+
+    private String direction = "asc";
+
+    private RoleType role;
+
+    private String hospitalId;
+
+    private Boolean active;
+
+    private Set<String> fields;
+}
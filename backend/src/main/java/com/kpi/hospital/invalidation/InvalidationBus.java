@@ -0,0 +1,218 @@
+﻿package com.kpi.hospital.invalidation;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class InvalidationBus implements SmartInitializingSingleton {
+
+    private static final int SEEN_EVENTS = 10_000;
+
+    private final InvalidationProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final List<InvalidationListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter publishFailures;
+    private final Timer lag;
+    private final Map<ObjectId, Boolean> seen = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ObjectId, Boolean> eldest) {
+            return size() > SEEN_EVENTS;
+        }
+    };
+    private volatile boolean running;
+    private volatile Thread tailer;
+    private volatile MongoCursor<Document> cursor;
+    private Instant lastSeenAt;
+
+    public InvalidationBus(InvalidationProperties properties, MongoTemplate mongoTemplate,
+            List<InvalidationListener> listeners, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.publishFailures = Counter.builder("kpi.invalidation.publish.failures")
+                .description("Invalidation events that could not be written")
+                .register(meterRegistry);
+        this.lag = Timer.builder("kpi.invalidation.lag")
+                .description("Time from publishing an invalidation event to handling it on another node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ensureCollection();
+        lastSeenAt = Instant.now();
+        running = true;
+        Thread thread = new Thread(this::tail, "invalidation-bus");
+        thread.setDaemon(true);
+        thread.start();
+        tailer = thread;
+        log.info("Following {} as node {}", properties.getCollection(), nodeId);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+        Thread thread = tailer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        MongoCursor<Document> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (RuntimeException ex) {
+                log.debug("Closing the invalidation cursor failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    public void publish(InvalidationEvent.Entity entity, String key) {
+        publish(entity, List.of(key));
+    }
+
+    public void publish(InvalidationEvent.Entity entity, Collection<String> keys) {
+        if (!properties.isEnabled() || keys.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        List<Document> events = keys.stream()
+                .map(key -> new Document("entity", entity.name())
+                        .append("key", key)
+                        .append("origin", nodeId)
+                        .append("at", now))
+                .toList();
+        try {
+            events().insertMany(events);
+            counter(entity, "published").increment(events.size());
+        } catch (RuntimeException ex) {
+            publishFailures.increment(events.size());
+            log.warn("Could not publish {} {} invalidation(s): {}", events.size(), entity, ex.getMessage());
+        }
+    }
+
+    private void ensureCollection() {
+        try {
+            if (!mongoTemplate.collectionExists(properties.getCollection())) {
+                mongoTemplate.createCollection(properties.getCollection(), CollectionOptions.empty()
+                        .capped()
+                        .size(properties.getCappedSizeBytes())
+                        .maxDocuments(properties.getMaxDocuments()));
+            }
+        } catch (RuntimeException ex) {
+            // Usually another node creating it at the same time; tailing fails loudly if it is really missing.
+            log.warn("Could not create capped collection {}: {}", properties.getCollection(), ex.getMessage());
+        }
+    }
+
+    private void tail() {
+        while (running) {
+            try (MongoCursor<Document> opened = events()
+                    .find(Filters.gte("_id", lowerBound(lastSeenAt.minusMillis(properties.getReplayOverlapMs()))))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(properties.getMaxAwaitMs(), TimeUnit.MILLISECONDS)
+                    .iterator()) {
+                cursor = opened;
+                while (running) {
+                    Document event = opened.tryNext();
+                    if (event != null) {
+                        receive(event);
+                    } else if (opened.getServerCursor() == null) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                if (running) {
+                    log.warn("Invalidation cursor failed, reconnecting: {}", ex.getMessage());
+                }
+            } finally {
+                cursor = null;
+            }
+            try {
+                Thread.sleep(properties.getReconnectDelayMs());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void receive(Document event) {
+        ObjectId id = event.getObjectId("_id");
+        Instant publishedAt = id.getDate().toInstant();
+        if (publishedAt.isAfter(lastSeenAt)) {
+            lastSeenAt = publishedAt;
+        }
+        if (seen.put(id, Boolean.TRUE) != null || nodeId.equals(event.getString("origin"))) {
+            return;
+        }
+        InvalidationEvent.Entity entity;
+        try {
+            entity = InvalidationEvent.Entity.valueOf(event.getString("entity"));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            return;
+        }
+        if (event.getDate("at") != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - event.getDate("at").getTime()),
+                    TimeUnit.MILLISECONDS);
+        }
+        InvalidationEvent invalidation = new InvalidationEvent(entity, event.getString("key"));
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onInvalidation(invalidation);
+            } catch (RuntimeException ex) {
+                log.warn("{} failed to handle {}: {}", listener.getClass().getSimpleName(), invalidation,
+                        ex.getMessage());
+            }
+        }
+        counter(entity, "received").increment();
+    }
+
+    private MongoCollection<Document> events() {
+        return mongoTemplate.getCollection(properties.getCollection());
+    }
+
+    private Counter counter(InvalidationEvent.Entity entity, String direction) {
+        return Counter.builder("kpi.invalidation.events")
+                .description("Cache invalidation events published by or received from other nodes")
+                .tag("entity", entity.name().toLowerCase())
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static ObjectId lowerBound(Instant instant) {
+        return new ObjectId(String.format("%08x%016x", Math.max(0, instant.getEpochSecond()), 0));
+    }
+}
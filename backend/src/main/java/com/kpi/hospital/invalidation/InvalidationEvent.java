@@ -0,0 +1,10 @@
+﻿package com.kpi.hospital.invalidation;
+
+public record InvalidationEvent(Entity entity, String key) {
+
+    public enum Entity {
+        HOSPITAL,
+        USER,
+        KPI
+    }
+}
@@ -0,0 +1,6 @@
+﻿package com.kpi.hospital.invalidation;
+
+public interface InvalidationListener {
+
+    void onInvalidation(InvalidationEvent event);
+}
@@ -0,0 +1,35 @@
+﻿package com.kpi.hospital.invalidation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "invalidation")
+public class InvalidationProperties {
+
+    private boolean enabled = true;
+
+    @NotBlank
+    private String collection = "cache_invalidation_events";
+
+    @Positive
+    private long cappedSizeBytes = 16L * 1024 * 1024;
+
+    @Positive
+    private long maxDocuments = 100_000;
+
+    @Positive
+    private long maxAwaitMs = 1000;
+
+    @Positive
+    private long reconnectDelayMs = 1000;
+
+    @Positive
+    private long replayOverlapMs = 5000;
+}
@@ -0,0 +1,67 @@
+﻿package com.kpi.hospital.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MethodTimingAspect {
+
+    public static final String METRIC = "kpi.method";
+    public static final String HOSPITAL_REQUESTS = "kpi.hospital.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.kpi.hospital.controller..*(..)) "
+            + "&& @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        meterRegistry.counter(HOSPITAL_REQUESTS, MetricScope.current().hospitalTags()).increment();
+        return time(joinPoint, "controller");
+    }
+
+    @Around("execution(public * com.kpi.hospital.service.impl..*(..)) "
+            + "&& @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("execution(public * com.kpi.hospital.mock.ai..*(..)) "
+            + "&& @within(org.springframework.stereotype.Component)")
+    public Object timeAi(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "ai");
+    }
+
+    @Around("execution(public * com.kpi.hospital.security.JwtTokenService.*(..))")
+    public Object timeSecurity(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "security");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Latency of controller, service, AI engine and token operations")
+                    .tags(Tags.of(
+                            "layer", layer,
+                            "class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                            "method", joinPoint.getSignature().getName(),
+                            "exception", exception))
+                    .tags(MetricScope.current().tags())
+                    .register(meterRegistry));
+        }
+    }
+}
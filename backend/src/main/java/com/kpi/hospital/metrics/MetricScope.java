@@ -0,0 +1,68 @@
+﻿package com.kpi.hospital.metrics;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.security.AuthenticatedUser;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Tags;
+
+public record MetricScope(String hospital, String role) {
+
+    public static final String HOSPITAL_TAG = "hospital";
+    public static final String ROLE_TAG = "role";
+    public static final String REQUEST_ATTRIBUTE = MetricScope.class.getName();
+
+    public static final MetricScope NONE = new MetricScope("none", "none");
+
+    private static final String NETWORK = "network";
+
+    public static MetricScope current() {
+        return of(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public static MetricScope of(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return NONE;
+        }
+        RoleType role = primaryRole(authentication);
+        if (role == null) {
+            return NONE;
+        }
+        if (role != RoleType.MANAGER) {
+            return new MetricScope(NETWORK, role.name());
+        }
+        String hospitalId = authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getHospitalId()
+                : null;
+        return new MetricScope(hospitalId == null ? NONE.hospital : hospitalId, role.name());
+    }
+
+    public Tags tags() {
+        return Tags.of(ROLE_TAG, role);
+    }
+
+    public Tags hospitalTags() {
+        return Tags.of(HOSPITAL_TAG, hospital, ROLE_TAG, role);
+    }
+
+    public KeyValues keyValues() {
+        return KeyValues.of(ROLE_TAG, role);
+    }
+
+    private static RoleType primaryRole(Authentication authentication) {
+        RoleType primary = null;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            for (RoleType role : RoleType.values()) {
+                if (name.equals("ROLE_" + role.name()) && (primary == null || role.ordinal() < primary.ordinal())) {
+                    primary = role;
+                }
+            }
+        }
+        return primary;
+    }
+}
@@ -0,0 +1,18 @@
+﻿package com.kpi.hospital.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandEvent;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.mongodb.DefaultMongoCommandTagsProvider;
+
+@Component
+public class ScopedMongoCommandTagsProvider extends DefaultMongoCommandTagsProvider {
+
+    @Override
+    public Iterable<Tag> commandTags(CommandEvent event) {
+        return Tags.concat(super.commandTags(event), MetricScope.current().tags());
+    }
+}
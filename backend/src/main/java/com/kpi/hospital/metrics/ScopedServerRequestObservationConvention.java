@@ -0,0 +1,18 @@
+﻿package com.kpi.hospital.metrics;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.common.KeyValues;
+
+@Component
+public class ScopedServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        Object scope = context.getCarrier().getAttribute(MetricScope.REQUEST_ATTRIBUTE);
+        return super.getLowCardinalityKeyValues(context)
+                .and((scope instanceof MetricScope metricScope ? metricScope : MetricScope.NONE).keyValues());
+    }
+}
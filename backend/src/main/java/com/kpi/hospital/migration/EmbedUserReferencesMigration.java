@@ -0,0 +1,79 @@
+﻿package com.kpi.hospital.migration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+
+@Component
+public class EmbedUserReferencesMigration implements MongoMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public String id() {
+        return "2026-10-01-embed-user-references";
+    }
+
+    @Override
+    public void apply(MongoTemplate mongoTemplate) {
+        Map<String, String> roleNamesById = new HashMap<>();
+        mongoTemplate.getCollection("roles").find().projection(Projections.include("name"))
+                .forEach(role -> roleNamesById.put(String.valueOf(role.get("_id")), role.getString("name")));
+
+        MongoCollection<Document> users = mongoTemplate.getCollection("users");
+        List<WriteModel<Document>> batch = new ArrayList<>();
+        for (Document user : users.find(Filters.or(Filters.exists("roles"), Filters.exists("hospital")))
+                .projection(Projections.include("roles", "hospital"))) {
+            List<String> roleNames = new ArrayList<>();
+            Object roles = user.get("roles");
+            if (roles instanceof List<?> references) {
+                for (Object reference : references) {
+                    String roleName = roleNamesById.get(referencedId(reference));
+                    if (roleName != null) {
+                        roleNames.add(roleName);
+                    }
+                }
+            }
+            List<Bson> updates = new ArrayList<>();
+            updates.add(Updates.set("roleNames", roleNames));
+            updates.add(Updates.unset("roles"));
+            updates.add(Updates.unset("hospital"));
+            String hospitalId = referencedId(user.get("hospital"));
+            if (hospitalId != null) {
+                updates.add(Updates.set("hospitalId", hospitalId));
+            }
+            batch.add(new UpdateOneModel<>(Filters.eq("_id", user.get("_id")), Updates.combine(updates)));
+            if (batch.size() == BATCH_SIZE) {
+                users.bulkWrite(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            users.bulkWrite(batch);
+        }
+    }
+
+    private static String referencedId(Object reference) {
+        if (reference instanceof DBRef dbRef) {
+            return String.valueOf(dbRef.getId());
+        }
+        if (reference instanceof Document document && document.containsKey("$id")) {
+            return String.valueOf(document.get("$id"));
+        }
+        return null;
+    }
+}
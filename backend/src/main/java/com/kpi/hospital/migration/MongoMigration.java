@@ -0,0 +1,11 @@
+﻿package com.kpi.hospital.migration;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+public interface MongoMigration {
+
+    String id();
+
+    // Must be idempotent: a node can stop after applying a migration but before recording it.
+    void apply(MongoTemplate mongoTemplate);
+}
@@ -0,0 +1,111 @@
+﻿package com.kpi.hospital.migration;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class MongoMigrationRunner implements SmartInitializingSingleton {
+
+    static final String COLLECTION = "schema_migrations";
+    static final String RUNNING = "RUNNING";
+    static final String APPLIED = "APPLIED";
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration STALE_AFTER = Duration.ofMinutes(10);
+
+    private final MongoTemplate mongoTemplate;
+    private final List<MongoMigration> migrations;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    public MongoMigrationRunner(MongoTemplate mongoTemplate, List<MongoMigration> migrations) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrations = migrations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrations.stream()
+                .sorted(Comparator.comparing(MongoMigration::id))
+                .forEach(this::run);
+    }
+
+    private void run(MongoMigration migration) {
+        boolean waiting = false;
+        while (!isApplied(migration.id())) {
+            if (claim(migration.id())) {
+                apply(migration);
+                return;
+            }
+            if (!waiting) {
+                log.info("Migration {} is being applied by another node; waiting", migration.id());
+                waiting = true;
+            }
+            pause();
+        }
+    }
+
+    private boolean isApplied(String id) {
+        Document row = mongoTemplate.findById(id, Document.class, COLLECTION);
+        // Rows written before claims existed carry no state and were applied.
+        return row != null && !RUNNING.equals(row.getString("state"));
+    }
+
+    private boolean claim(String id) {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.insert(new Document("_id", id)
+                    .append("state", RUNNING)
+                    .append("owner", owner)
+                    .append("startedAt", now), COLLECTION);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // The owner may have died mid-run; migrations are idempotent, so a stale claim can be taken over.
+            return mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id)
+                            .and("state").is(RUNNING)
+                            .and("startedAt").lt(now.minus(STALE_AFTER))),
+                    new Update().set("owner", owner).set("startedAt", now),
+                    COLLECTION).getModifiedCount() == 1;
+        }
+    }
+
+    private void apply(MongoMigration migration) {
+        long started = System.currentTimeMillis();
+        try {
+            migration.apply(mongoTemplate);
+        } catch (RuntimeException ex) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(migration.id()).and("owner").is(owner)),
+                    COLLECTION);
+            throw ex;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(migration.id())),
+                new Update().set("state", APPLIED).set("appliedAt", Instant.now()), COLLECTION);
+        log.info("Applied migration {} in {} ms", migration.id(), System.currentTimeMillis() - started);
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a migration", ex);
+        }
+    }
+}
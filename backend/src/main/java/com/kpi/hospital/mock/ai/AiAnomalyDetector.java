@@ -14,6 +14,7 @@ import com.kpi.hospital.dto.AiAnomalyResponse;
 import com.kpi.hospital.model.KpiPoint;
 import com.kpi.hospital.model.KpiSeries;
 import com.kpi.hospital.repository.KpiSeriesRepository;
+import com.kpi.hospital.tenancy.TenantRouter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -22,11 +23,16 @@ import lombok.RequiredArgsConstructor;
 public class AiAnomalyDetector {
 
     private final KpiSeriesRepository kpiSeriesRepository;
+    private final TenantRouter tenantRouter;
 
     public List<AiAnomalyResponse> detectAnomalies(String hospitalId) {
         List<KpiSeries> series = hospitalId != null
-                ? kpiSeriesRepository.findByHospitalId(hospitalId)
-                : kpiSeriesRepository.findAll();
+                ? tenantRouter.forHospital(hospitalId, () -> kpiSeriesRepository.findByHospitalId(hospitalId))
+                : tenantRouter.fanOutAll(kpiSeriesRepository::findAll);
+        return detectAnomalies(series);
+    }
+
+    public List<AiAnomalyResponse> detectAnomalies(List<KpiSeries> series) {
         return series.stream()
                 .map(this::scoreAnomaly)
                 .filter(anomaly -> anomaly != null)
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import com.kpi.hospital.dto.AiRecommendationResponse;
 import com.kpi.hospital.model.KpiSeries;
 import com.kpi.hospital.repository.KpiSeriesRepository;
+import com.kpi.hospital.tenancy.TenantRouter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,11 +25,16 @@ public class AiRecommendationEngine {
             "Launch patient education refresh");
 
     private final KpiSeriesRepository kpiSeriesRepository;
+    private final TenantRouter tenantRouter;
 
     public List<AiRecommendationResponse> generateRecommendations(String hospitalId) {
         List<KpiSeries> series = hospitalId != null
-                ? kpiSeriesRepository.findByHospitalId(hospitalId)
-                : kpiSeriesRepository.findAll();
+                ? tenantRouter.forHospital(hospitalId, () -> kpiSeriesRepository.findByHospitalId(hospitalId))
+                : tenantRouter.fanOutAll(kpiSeriesRepository::findAll);
+        return generateRecommendations(series);
+    }
+
+    public List<AiRecommendationResponse> generateRecommendations(List<KpiSeries> series) {
         return series.stream()
                 .limit(5)
                 .map(seriesEntry -> AiRecommendationResponse.builder()
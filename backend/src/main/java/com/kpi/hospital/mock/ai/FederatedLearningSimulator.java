@@ -7,10 +7,10 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.stereotype.Component;
 
+import com.kpi.hospital.cache.HospitalDirectory;
 import com.kpi.hospital.dto.FederatedStatusResponse;
 import com.kpi.hospital.model.FederatedLearningState;
 import com.kpi.hospital.model.Hospital;
-import com.kpi.hospital.repository.HospitalRepository;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,11 +24,10 @@ public class FederatedLearningSimulator {
             FederatedLearningState.OFFLINE, "Awaiting connectivity",
             FederatedLearningState.DEGRADED, "Reduced data quality detected");
 
-    private final HospitalRepository hospitalRepository;
+    private final HospitalDirectory hospitalDirectory;
 
     public List<FederatedStatusResponse> getFederatedStatuses() {
-        List<Hospital> hospitals = hospitalRepository.findAll();
-        return hospitals.stream()
+        return hospitalDirectory.all().stream()
                 .map(this::buildStatus)
                 .toList();
     }
@@ -0,0 +1,30 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "cluster_members")
+public class ClusterMember {
+
+    @Id
+    private String nodeId;
+
+    private String host;
+
+    private Instant startedAt;
+
+    @Indexed(expireAfter = "1d")
+    private Instant heartbeatAt;
+}
@@ -4,6 +4,9 @@ import java.util.Map;
 import java.util.Set;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -16,6 +19,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "hospitals")
+@CompoundIndexes({
+        @CompoundIndex(name = "name_id_idx", def = "{ 'name': 1, '_id': 1 }"),
+        @CompoundIndex(name = "code_id_idx", def = "{ 'code': 1, '_id': 1 }"),
+        @CompoundIndex(name = "country_city_name_idx", def = "{ 'country': 1, 'city': 1, 'name': 1, '_id': 1 }"),
+        @CompoundIndex(name = "federated_state_idx", def = "{ 'federatedState': 1 }"),
+        @CompoundIndex(name = "updated_at_idx", def = "{ 'updatedAt': 1 }"),
+        @CompoundIndex(name = "tenant_idx", def = "{ 'tenantId': 1 }", sparse = true)
+})
 public class Hospital extends AuditableDocument {
 
     @Id
@@ -23,6 +34,7 @@ public class Hospital extends AuditableDocument {
 
     private String name;
 
+    @Indexed(unique = true)
     private String code;
 
     private String address;
@@ -38,4 +50,6 @@ public class Hospital extends AuditableDocument {
     private FederatedLearningState federatedState;
 
     private Map<String, Object> metadata;
+
+    private String tenantId;
 }
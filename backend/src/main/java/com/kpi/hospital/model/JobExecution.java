@@ -0,0 +1,46 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_executions")
+@CompoundIndex(name = "job_started_idx", def = "{'job': 1, 'startedAt': -1}")
+public class JobExecution {
+
+    @Id
+    private String id;
+
+    private String job;
+
+    private String owner;
+
+    private long fencingToken;
+
+    private Instant scheduledAt;
+
+    @Indexed(expireAfter = "30d")
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private long durationMs;
+
+    private long lagMs;
+
+    private JobExecutionStatus status;
+
+    private String error;
+}
@@ -0,0 +1,7 @@
+﻿package com.kpi.hospital.model;
+
+public enum JobExecutionStatus {
+    SUCCEEDED,
+    FAILED,
+    LEASE_LOST
+}
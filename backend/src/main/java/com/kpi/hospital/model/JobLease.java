@@ -0,0 +1,36 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_leases")
+public class JobLease {
+
+    @Id
+    private String job;
+
+    private String owner;
+
+    private long fencingToken;
+
+    private Instant acquiredAt;
+
+    private Instant expiresAt;
+
+    private Instant lastRunAt;
+
+    private Instant nextRunAt;
+
+    private JobExecutionStatus lastStatus;
+}
@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -18,7 +19,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "kpi_series")
-@CompoundIndex(name = "hospital_metric_idx", def = "{ 'hospitalId': 1, 'department': 1, 'metric': 1 }", unique = true)
+@CompoundIndexes({
+        @CompoundIndex(name = "hospital_metric_idx", def = "{ 'hospitalId': 1, 'department': 1, 'metric': 1 }",
+                unique = true),
+        @CompoundIndex(name = "updated_at_idx", def = "{ 'updatedAt': 1 }")
+})
 public class KpiSeries extends AuditableDocument {
 
     @Id
@@ -0,0 +1,43 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "metric_sketches")
+public class MetricSketch {
+
+    @Id
+    private String key;
+
+    private String metric;
+
+    private String department;
+
+    private double compression;
+
+    private long count;
+
+    private double min;
+
+    private double max;
+
+    private List<Double> means;
+
+    private List<Double> weights;
+
+    private long fencingToken;
+
+    private Instant updatedAt;
+}
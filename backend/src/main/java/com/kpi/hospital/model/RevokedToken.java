@@ -0,0 +1,35 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String tokenId;
+
+    private String subject;
+
+    private String revokedBy;
+
+    private String reason;
+
+    @Indexed
+    private Instant revokedAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -0,0 +1,38 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "series_observations")
+public class SeriesObservation {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private long token;
+
+    private String hospitalId;
+
+    private String department;
+
+    private String metric;
+
+    private double value;
+
+    private Instant timestamp;
+
+    private String origin;
+}
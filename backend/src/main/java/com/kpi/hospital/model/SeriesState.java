@@ -0,0 +1,42 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "series_state")
+public class SeriesState {
+
+    @Id
+    private String key;
+
+    private String owner;
+
+    private boolean handedOff;
+
+    private long count;
+
+    private double mean;
+
+    private double m2;
+
+    private double min;
+
+    private double max;
+
+    private double last;
+
+    private Instant asOf;
+
+    private Instant checkpointedAt;
+}
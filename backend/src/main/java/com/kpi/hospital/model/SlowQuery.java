@@ -0,0 +1,51 @@
+﻿package com.kpi.hospital.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.annotation.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@org.springframework.data.mongodb.core.mapping.Document(collection = SlowQuery.COLLECTION)
+public class SlowQuery {
+
+    public static final String COLLECTION = "slow_queries";
+
+    @Id
+    private String id;
+
+    private Instant recordedAt;
+
+    private String database;
+
+    private String collection;
+
+    private String command;
+
+    private long durationMs;
+
+    private boolean failed;
+
+    private String caller;
+
+    private String repositoryMethod;
+
+    private Document shape;
+
+    private String planSummary;
+
+    private List<String> indexes;
+
+    private Boolean collectionScan;
+
+    private String explainError;
+}
@@ -3,8 +3,11 @@
 import java.util.Set;
 
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,11 +19,18 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
+@CompoundIndexes({
+        @CompoundIndex(name = "email_id_idx", def = "{ 'email': 1, '_id': 1 }"),
+        @CompoundIndex(name = "full_name_id_idx", def = "{ 'fullName': 1, '_id': 1 }"),
+        @CompoundIndex(name = "hospital_email_idx", def = "{ 'hospitalId': 1, 'email': 1, '_id': 1 }"),
+        @CompoundIndex(name = "role_email_idx", def = "{ 'roleNames': 1, 'email': 1, '_id': 1 }")
+})
 public class User extends AuditableDocument {
 
     @Id
     private String id;
 
+    @Indexed(unique = true)
     private String email;
 
     private String password;
@@ -29,11 +39,12 @@ public class User extends AuditableDocument {
 
     private String title;
 
-    @DBRef
-    private Hospital hospital;
+    private String hospitalId;
 
-    @DBRef
-    private Set<Role> roles;
+    @Field("roleNames")
+    private Set<RoleType> roles;
 
     private boolean active;
+
+    private long securityVersion;
 }
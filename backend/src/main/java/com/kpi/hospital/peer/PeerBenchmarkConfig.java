@@ -0,0 +1,9 @@
+﻿package com.kpi.hospital.peer;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PeerBenchmarkProperties.class)
+public class PeerBenchmarkConfig {
+}
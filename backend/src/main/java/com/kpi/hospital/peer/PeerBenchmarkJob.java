@@ -0,0 +1,112 @@
+﻿package com.kpi.hospital.peer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.MetricSketch;
+import com.kpi.hospital.scheduling.ClusterJob;
+import com.kpi.hospital.scheduling.JobContext;
+import com.kpi.hospital.tenancy.TenantContext;
+import com.kpi.hospital.tenancy.TenantRouter;
+
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+public class PeerBenchmarkJob implements ClusterJob {
+
+    private static final String COLLECTION = "metric_sketches";
+
+    private final PeerBenchmarkProperties properties;
+    private final PeerBenchmarks peerBenchmarks;
+    private final TenantRouter tenantRouter;
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public String name() {
+        return "peer-benchmarks";
+    }
+
+    @Override
+    public Duration defaultInterval() {
+        return Duration.ofMillis(properties.getRebuildIntervalMs());
+    }
+
+    @Override
+    public void run(JobContext context) {
+        Map<SketchKey, TDigest> digests = build();
+        context.checkLease();
+        Instant now = Instant.now();
+        for (Map.Entry<SketchKey, TDigest> entry : digests.entrySet()) {
+            if (!context.write(mongoTemplate, COLLECTION, entry.getKey().id(),
+                    toUpdate(entry.getKey(), entry.getValue(), now))) {
+                context.checkLease();
+            }
+        }
+        List<String> ids = digests.keySet().stream().map(SketchKey::id).toList();
+        mongoTemplate.remove(Query.query(Criteria.where("_id").nin(ids)
+                .and(JobContext.FENCING_TOKEN).lte(context.fencingToken())), MetricSketch.class);
+        peerBenchmarks.refresh();
+    }
+
+    private Map<SketchKey, TDigest> build() {
+        Query query = new Query();
+        query.fields().include("hospitalId").include("metric").include("department").slice("history", -1);
+        Map<SketchKey, Map<String, KpiPoint>> latest = new HashMap<>();
+        for (String tenantId : tenantRouter.tenantIds()) {
+            TenantContext.call(tenantId, () -> {
+                try (Stream<KpiSeries> series = mongoTemplate.stream(query, KpiSeries.class)) {
+                    series.forEach(each -> collect(each, latest));
+                }
+                return null;
+            });
+        }
+        Map<SketchKey, TDigest> digests = new HashMap<>();
+        latest.forEach((key, byHospital) -> {
+            TDigest digest = new TDigest(properties.getCompression());
+            byHospital.values().forEach(point -> digest.add(point.getValue().doubleValue()));
+            digests.put(key, digest);
+        });
+        return digests;
+    }
+
+    private static void collect(KpiSeries series, Map<SketchKey, Map<String, KpiPoint>> latest) {
+        List<KpiPoint> history = series.getHistory();
+        KpiPoint point = history != null && !history.isEmpty() ? history.get(history.size() - 1) : null;
+        if (point == null || point.getValue() == null || point.getTimestamp() == null) {
+            return;
+        }
+        for (SketchKey key : List.of(SketchKey.allDepartments(series.getMetric()),
+                SketchKey.of(series.getMetric(), series.getDepartment()))) {
+            latest.computeIfAbsent(key, ignored -> new HashMap<>())
+                    .merge(series.getHospitalId(), point, (current, other) ->
+                            other.getTimestamp().isAfter(current.getTimestamp()) ? other : current);
+        }
+    }
+
+    private static Update toUpdate(SketchKey key, TDigest digest, Instant now) {
+        return new Update()
+                .set("metric", key.metric())
+                .set("department", key.department())
+                .set("compression", digest.compression())
+                .set("count", digest.count())
+                .set("min", digest.min())
+                .set("max", digest.max())
+                .set("means", Arrays.stream(digest.means()).boxed().toList())
+                .set("weights", Arrays.stream(digest.weights()).boxed().toList())
+                .set("updatedAt", now);
+    }
+}
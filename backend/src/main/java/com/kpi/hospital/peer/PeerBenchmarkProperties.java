@@ -0,0 +1,24 @@
+﻿package com.kpi.hospital.peer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "peer-benchmarks")
+public class PeerBenchmarkProperties {
+
+    @Min(10)
+    private double compression = 200;
+
+    @Positive
+    private long rebuildIntervalMs = 60000;
+
+    @Positive
+    private long refreshIntervalMs = 30000;
+}
@@ -0,0 +1,61 @@
+﻿package com.kpi.hospital.peer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.MetricSketch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class PeerBenchmarks implements SmartInitializingSingleton {
+
+    private final MongoTemplate mongoTemplate;
+    private volatile Map<SketchKey, TDigest> sketches = Map.of();
+
+    public PeerBenchmarks(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        Gauge.builder("kpi.benchmarks.sketches", this, benchmarks -> benchmarks.sketches.size())
+                .description("Metric and department sketches held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    public Optional<TDigest> sketch(SketchKey key) {
+        return Optional.ofNullable(sketches.get(key)).map(TDigest::copy);
+    }
+
+    @Scheduled(fixedDelayString = "${peer-benchmarks.refresh-interval-ms:30000}",
+            initialDelayString = "${peer-benchmarks.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            Map<SketchKey, TDigest> loaded = new HashMap<>();
+            for (MetricSketch stored : mongoTemplate.findAll(MetricSketch.class)) {
+                loaded.put(SketchKey.of(stored.getMetric(), stored.getDepartment()), toDigest(stored));
+            }
+            sketches = Map.copyOf(loaded);
+        } catch (RuntimeException ex) {
+            log.warn("Could not reload metric sketches: {}", ex.getMessage());
+        }
+    }
+
+    private static TDigest toDigest(MetricSketch stored) {
+        return TDigest.of(stored.getCompression(),
+                stored.getMeans().stream().mapToDouble(Double::doubleValue).toArray(),
+                stored.getWeights().stream().mapToDouble(Double::doubleValue).toArray(),
+                stored.getMin(), stored.getMax());
+    }
+}
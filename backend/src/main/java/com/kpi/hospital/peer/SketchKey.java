@@ -0,0 +1,16 @@
+﻿package com.kpi.hospital.peer;
+
+public record SketchKey(String metric, String department) {
+
+    public static SketchKey of(String metric, String department) {
+        return new SketchKey(metric, department);
+    }
+
+    public static SketchKey allDepartments(String metric) {
+        return new SketchKey(metric, null);
+    }
+
+    public String id() {
+        return metric + "/" + (department != null ? department : "*");
+    }
+}
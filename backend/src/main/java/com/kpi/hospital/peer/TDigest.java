@@ -0,0 +1,223 @@
+﻿package com.kpi.hospital.peer;
+
+import java.util.Arrays;
+
+public final class TDigest {
+
+    private final double compression;
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private double totalWeight;
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered;
+    private double bufferedWeight;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        this.bufferMeans = new double[(int) (5 * compression)];
+        this.bufferWeights = new double[bufferMeans.length];
+    }
+
+    public static TDigest of(double compression, double[] means, double[] weights, double min, double max) {
+        if (means.length != weights.length) {
+            throw new IllegalArgumentException("Centroid means and weights differ in length");
+        }
+        TDigest digest = new TDigest(compression);
+        digest.means = means.clone();
+        digest.weights = weights.clone();
+        for (double weight : weights) {
+            digest.totalWeight += weight;
+        }
+        if (means.length > 0) {
+            digest.min = min;
+            digest.max = max;
+        }
+        return digest;
+    }
+
+    public double compression() {
+        return compression;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.means.length; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.count() > 0) {
+            min = Double.isNaN(min) ? other.min : Math.min(min, other.min);
+            max = Double.isNaN(max) ? other.max : Math.max(max, other.max);
+        }
+    }
+
+    public TDigest copy() {
+        compress();
+        return of(compression, means, weights, min, max);
+    }
+
+    public long count() {
+        return Math.round(totalWeight + bufferedWeight);
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double[] means() {
+        compress();
+        return means.clone();
+    }
+
+    public double[] weights() {
+        compress();
+        return weights.clone();
+    }
+
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress();
+        int n = means.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return min + q * (max - min);
+        }
+        double index = q * totalWeight;
+        if (index <= weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double weightSoFar = weights[0] / 2;
+        for (int i = 0; i < n - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (weightSoFar + gap > index) {
+                double fraction = (index - weightSoFar) / gap;
+                return means[i] + fraction * (means[i + 1] - means[i]);
+            }
+            weightSoFar += gap;
+        }
+        double tail = weights[n - 1] / 2;
+        return means[n - 1] + (max - means[n - 1]) * Math.min(1, (index - weightSoFar) / tail);
+    }
+
+    public double cdf(double value) {
+        compress();
+        int n = means.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (value < min) {
+            return 0;
+        }
+        if (value > max) {
+            return 1;
+        }
+        if (min == max) {
+            return 0.5;
+        }
+        if (n == 1) {
+            return (value - min) / (max - min);
+        }
+        if (value < means[0]) {
+            return weights[0] / 2 * (value - min) / (means[0] - min) / totalWeight;
+        }
+        double weightSoFar = weights[0] / 2;
+        for (int i = 0; i < n - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (value < means[i + 1]) {
+                return (weightSoFar + gap * (value - means[i]) / (means[i + 1] - means[i])) / totalWeight;
+            }
+            weightSoFar += gap;
+        }
+        if (max == means[n - 1]) {
+            return weightSoFar / totalWeight;
+        }
+        return (weightSoFar + weights[n - 1] / 2 * (value - means[n - 1]) / (max - means[n - 1])) / totalWeight;
+    }
+
+    private void add(double mean, double weight) {
+        if (Double.isNaN(mean) || weight <= 0) {
+            return;
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = mean;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        bufferedWeight += weight;
+        min = Double.isNaN(min) ? mean : Math.min(min, mean);
+        max = Double.isNaN(max) ? mean : Math.max(max, mean);
+    }
+
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = means.length + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, means.length, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, means.length, buffered);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double total = totalWeight + bufferedWeight;
+        double[] mergedMeans = new double[n];
+        double[] mergedWeights = new double[n];
+        int merged = 0;
+        double currentMean = allMeans[order[0]];
+        double currentWeight = allWeights[order[0]];
+        double weightSoFar = 0;
+        double limit = limit(0, total);
+        for (int i = 1; i < n; i++) {
+            double mean = allMeans[order[i]];
+            double weight = allWeights[order[i]];
+            if (weightSoFar + currentWeight + weight <= limit) {
+                currentWeight += weight;
+                currentMean += (mean - currentMean) * weight / currentWeight;
+            } else {
+                mergedMeans[merged] = currentMean;
+                mergedWeights[merged] = currentWeight;
+                merged++;
+                weightSoFar += currentWeight;
+                limit = limit(weightSoFar, total);
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[merged] = currentMean;
+        mergedWeights[merged] = currentWeight;
+        merged++;
+
+        means = Arrays.copyOf(mergedMeans, merged);
+        weights = Arrays.copyOf(mergedWeights, merged);
+        totalWeight = total;
+        buffered = 0;
+        bufferedWeight = 0;
+    }
+
+    private double limit(double weightSoFar, double total) {
+        double angle = Math.asin(2 * weightSoFar / total - 1) + 2 * Math.PI / compression;
+        return angle >= Math.PI / 2 ? total : total * (Math.sin(angle) + 1) / 2;
+    }
+}
@@ -1,8 +1,11 @@
 ﻿package com.kpi.hospital.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import com.kpi.hospital.model.FederatedLearningState;
 import com.kpi.hospital.model.Hospital;
@@ -12,4 +15,7 @@ public interface HospitalRepository extends MongoRepository<Hospital, String> {
     Optional<Hospital> findByCode(String code);
 
     long countByFederatedState(FederatedLearningState state);
+
+    @Query(value = "{ 'code' : { '$in' : ?0 } }", fields = "{ 'code' : 1 }")
+    List<Hospital> findCodesIn(Collection<String> codes);
 }
@@ -11,7 +11,11 @@ public interface KpiSeriesRepository extends MongoRepository<KpiSeries, String>
 
     List<KpiSeries> findByHospitalId(String hospitalId);
 
+    long countByHospitalId(String hospitalId);
+
     List<KpiSeries> findByHospitalIdAndDepartment(String hospitalId, String department);
 
+    List<KpiSeries> findByHospitalIdAndMetric(String hospitalId, String metric);
+
     Optional<KpiSeries> findByHospitalIdAndDepartmentAndMetric(String hospitalId, String department, String metric);
 }
@@ -0,0 +1,15 @@
+﻿package com.kpi.hospital.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.kpi.hospital.model.KpiSeries;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveKpiSeriesRepository extends ReactiveMongoRepository<KpiSeries, String> {
+
+    Flux<KpiSeries> findByHospitalId(String hospitalId);
+
+    Mono<Long> countByHospitalId(String hospitalId);
+}
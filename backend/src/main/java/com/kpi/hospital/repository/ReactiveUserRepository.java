@@ -0,0 +1,12 @@
+﻿package com.kpi.hospital.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.kpi.hospital.model.User;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    Mono<User> findByEmail(String email);
+}
@@ -0,0 +1,15 @@
+﻿package com.kpi.hospital.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.kpi.hospital.model.RevokedToken;
+
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqualOrderByRevokedAtAsc(Instant since);
+}
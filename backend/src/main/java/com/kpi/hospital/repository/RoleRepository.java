@@ -1,5 +1,7 @@
 ﻿package com.kpi.hospital.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -10,4 +12,6 @@ import com.kpi.hospital.model.RoleType;
 public interface RoleRepository extends MongoRepository<Role, String> {
 
     Optional<Role> findByName(RoleType name);
+
+    List<Role> findByNameIn(Collection<RoleType> names);
 }
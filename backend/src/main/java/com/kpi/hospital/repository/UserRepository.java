@@ -1,9 +1,12 @@
 ﻿package com.kpi.hospital.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 import com.kpi.hospital.model.RoleType;
 import com.kpi.hospital.model.User;
@@ -14,5 +17,12 @@ public interface UserRepository extends MongoRepository<User, String> {
 
     boolean existsByEmail(String email);
 
-    List<User> findByRolesName(RoleType roleType);
+    List<User> findByRoles(RoleType roleType);
+
+    @Query(value = "{ 'email' : { '$in' : ?0 } }", fields = "{ 'email' : 1 }")
+    List<User> findEmailsIn(Collection<String> emails);
+
+    @Query("{ 'email' : ?0 }")
+    @Update("{ '$set' : { 'password' : ?1 } }")
+    long updatePasswordByEmail(String email, String password);
 }
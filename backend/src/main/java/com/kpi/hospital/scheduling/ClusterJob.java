@@ -0,0 +1,12 @@
+﻿package com.kpi.hospital.scheduling;
+
+import java.time.Duration;
+
+public interface ClusterJob {
+
+    String name();
+
+    Duration defaultInterval();
+
+    void run(JobContext context);
+}
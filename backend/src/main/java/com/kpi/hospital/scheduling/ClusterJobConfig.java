@@ -0,0 +1,9 @@
+﻿package com.kpi.hospital.scheduling;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ClusterJobProperties.class)
+public class ClusterJobConfig {
+}
@@ -0,0 +1,36 @@
+﻿package com.kpi.hospital.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "cluster-jobs")
+public class ClusterJobProperties {
+
+    private boolean enabled = true;
+
+    @Positive
+    private long pollIntervalMs = 5000;
+
+    @Positive
+    private long leaseTtlMs = 30000;
+
+    private Map<String, Job> jobs = new HashMap<>();
+
+    @Data
+    public static class Job {
+
+        private boolean enabled = true;
+
+        @Positive
+        private Long intervalMs;
+    }
+}
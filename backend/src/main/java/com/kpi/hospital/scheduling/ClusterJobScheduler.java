@@ -0,0 +1,199 @@
+﻿package com.kpi.hospital.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.JobExecution;
+import com.kpi.hospital.model.JobExecutionStatus;
+import com.kpi.hospital.model.JobLease;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class ClusterJobScheduler implements SmartInitializingSingleton {
+
+    private final ClusterJobProperties properties;
+    private final JobLeases leases;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ClusterJob> jobs = new LinkedHashMap<>();
+    private final Map<String, Long> heldTokens = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor executor;
+    private volatile boolean running;
+
+    public ClusterJobScheduler(ClusterJobProperties properties, JobLeases leases, MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry, ObjectProvider<ClusterJob> jobs) {
+        this.properties = properties;
+        this.leases = leases;
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        jobs.orderedStream().forEach(job -> {
+            if (this.jobs.put(job.name(), job) != null) {
+                throw new IllegalStateException("Duplicate cluster job name: " + job.name());
+            }
+        });
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled() || jobs.isEmpty()) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        // One thread per job for polls and runs, plus one so that lease renewals never wait behind a running job.
+        executor = new ScheduledThreadPoolExecutor(jobs.size() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "cluster-job-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        running = true;
+        for (ClusterJob job : jobs.values()) {
+            if (!isEnabled(job)) {
+                continue;
+            }
+            Gauge.builder("kpi.cluster.jobs.leader", heldTokens, held -> held.containsKey(job.name()) ? 1 : 0)
+                    .description("Whether this node holds the job's lease")
+                    .tag("job", job.name())
+                    .register(meterRegistry);
+            executor.scheduleWithFixedDelay(() -> poll(job), 0, properties.getPollIntervalMs(),
+                    TimeUnit.MILLISECONDS);
+        }
+        log.info("Scheduling cluster jobs {} as {}", jobs.keySet(), leases.owner());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdownNow();
+        // Hand the leases back so that another node does not have to wait for them to expire.
+        heldTokens.forEach((job, token) -> {
+            try {
+                leases.release(job, token);
+            } catch (RuntimeException ex) {
+                log.debug("Could not release lease on {}: {}", job, ex.getMessage());
+            }
+        });
+        heldTokens.clear();
+    }
+
+    public Map<String, Duration> jobs() {
+        Map<String, Duration> intervals = new LinkedHashMap<>();
+        jobs.values().forEach(job -> intervals.put(job.name(), interval(job)));
+        return intervals;
+    }
+
+    private void poll(ClusterJob job) {
+        if (!running) {
+            return;
+        }
+        try {
+            Optional<JobLease> lease = leases.acquire(job.name(), leaseTtl());
+            if (lease.isEmpty()) {
+                heldTokens.remove(job.name());
+                return;
+            }
+            JobLease held = lease.get();
+            if (heldTokens.put(job.name(), held.getFencingToken()) == null) {
+                log.info("Took the lease on job {} with fencing token {}", job.name(), held.getFencingToken());
+            }
+            Instant now = Instant.now();
+            if (held.getNextRunAt() == null || !now.isBefore(held.getNextRunAt())) {
+                execute(job, held, now);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Polling cluster job {} failed: {}", job.name(), ex.getMessage());
+        }
+    }
+
+    private void execute(ClusterJob job, JobLease lease, Instant startedAt) {
+        JobContext context = new JobContext(job.name(), lease.getFencingToken());
+        long renewEveryMs = Math.max(1, properties.getLeaseTtlMs() / 3);
+        ScheduledFuture<?> heartbeat = executor.scheduleWithFixedDelay(() -> {
+            if (!leases.renew(job.name(), lease.getFencingToken(), leaseTtl())) {
+                context.leaseLost();
+            }
+        }, renewEveryMs, renewEveryMs, TimeUnit.MILLISECONDS);
+        Instant scheduledAt = lease.getNextRunAt() != null ? lease.getNextRunAt() : startedAt;
+        JobExecutionStatus status;
+        String error = null;
+        try {
+            job.run(context);
+            status = context.holdsLease() ? JobExecutionStatus.SUCCEEDED : JobExecutionStatus.LEASE_LOST;
+        } catch (RuntimeException ex) {
+            status = context.holdsLease() ? JobExecutionStatus.FAILED : JobExecutionStatus.LEASE_LOST;
+            error = ex.getMessage();
+            log.warn("Cluster job {} failed: {}", job.name(), ex.getMessage());
+        } finally {
+            heartbeat.cancel(false);
+        }
+        Instant finishedAt = Instant.now();
+        long lagMs = Math.max(0, Duration.between(scheduledAt, startedAt).toMillis());
+        long durationMs = Duration.between(startedAt, finishedAt).toMillis();
+        if (!leases.completeRun(job.name(), lease.getFencingToken(), startedAt, startedAt.plus(interval(job)),
+                status)) {
+            status = JobExecutionStatus.LEASE_LOST;
+            heldTokens.remove(job.name());
+        }
+        mongoTemplate.insert(JobExecution.builder()
+                .job(job.name())
+                .owner(leases.owner())
+                .fencingToken(lease.getFencingToken())
+                .scheduledAt(scheduledAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .durationMs(durationMs)
+                .lagMs(lagMs)
+                .status(status)
+                .error(error)
+                .build());
+        Timer.builder("kpi.cluster.jobs.duration")
+                .description("Cluster job execution time")
+                .tags("job", job.name(), "status", status.name().toLowerCase())
+                .register(meterRegistry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+        Timer.builder("kpi.cluster.jobs.lag")
+                .description("Delay between a cluster job falling due and starting")
+                .tag("job", job.name())
+                .register(meterRegistry)
+                .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isEnabled(ClusterJob job) {
+        ClusterJobProperties.Job settings = properties.getJobs().get(job.name());
+        return settings == null || settings.isEnabled();
+    }
+
+    private Duration interval(ClusterJob job) {
+        ClusterJobProperties.Job settings = properties.getJobs().get(job.name());
+        return settings != null && settings.getIntervalMs() != null
+                ? Duration.ofMillis(settings.getIntervalMs())
+                : job.defaultInterval();
+    }
+
+    private Duration leaseTtl() {
+        return Duration.ofMillis(properties.getLeaseTtlMs());
+    }
+}
@@ -0,0 +1,55 @@
+﻿package com.kpi.hospital.scheduling;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public final class JobContext {
+
+    public static final String FENCING_TOKEN = "fencingToken";
+
+    private final String job;
+    private final long fencingToken;
+    private volatile boolean leaseLost;
+
+    JobContext(String job, long fencingToken) {
+        this.job = job;
+        this.fencingToken = fencingToken;
+    }
+
+    public String job() {
+        return job;
+    }
+
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    public boolean holdsLease() {
+        return !leaseLost;
+    }
+
+    public void checkLease() {
+        if (leaseLost) {
+            throw new IllegalStateException("Lease on job " + job + " was lost");
+        }
+    }
+
+    public boolean write(MongoTemplate mongoTemplate, String collection, Object id, Update update) {
+        Query current = Query.query(Criteria.where("_id").is(id).orOperator(
+                Criteria.where(FENCING_TOKEN).lte(fencingToken), Criteria.where(FENCING_TOKEN).exists(false)));
+        try {
+            mongoTemplate.upsert(current, update.set(FENCING_TOKEN, fencingToken), collection);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            leaseLost();
+            return false;
+        }
+    }
+
+    void leaseLost() {
+        leaseLost = true;
+    }
+}
@@ -0,0 +1,94 @@
+﻿package com.kpi.hospital.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.JobExecutionStatus;
+import com.kpi.hospital.model.JobLease;
+
+@Component
+public class JobLeases {
+
+    // Leases expire on the server's clock so clock skew between nodes cannot hand out a lease twice.
+    private static final AggregationExpression NOW = context -> new Document("$toDate", "$$NOW");
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    public JobLeases(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public Optional<JobLease> acquire(String job, Duration ttl) {
+        JobLease kept = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+                AggregationUpdate.update().set("expiresAt").toValue(nowPlus(ttl)),
+                FindAndModifyOptions.options().returnNew(true), JobLease.class);
+        if (kept != null) {
+            return Optional.of(kept);
+        }
+        try {
+            // A live lease does not match, so the upsert collides with it on _id instead of creating a second one.
+            Query expired = new BasicQuery(new Document("_id", job)
+                    .append("$expr", new Document("$lt", List.of("$expiresAt", "$$NOW"))));
+            return Optional.ofNullable(mongoTemplate.findAndModify(expired,
+                    AggregationUpdate.update()
+                            .set("owner").toValue(owner)
+                            .set("acquiredAt").toValue(NOW)
+                            .set("expiresAt").toValue(nowPlus(ttl))
+                            .set("fencingToken").toValue((AggregationExpression) context -> new Document("$add",
+                                    List.of(new Document("$ifNull", List.of("$fencingToken", 0L)), 1L))),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class));
+        } catch (DuplicateKeyException ex) {
+            return Optional.empty();
+        }
+    }
+
+    public boolean renew(String job, long fencingToken, Duration ttl) {
+        return mongoTemplate.updateFirst(held(job, fencingToken),
+                AggregationUpdate.update().set("expiresAt").toValue(nowPlus(ttl)), JobLease.class)
+                .getMatchedCount() > 0;
+    }
+
+    public boolean completeRun(String job, long fencingToken, Instant ranAt, Instant nextRunAt,
+            JobExecutionStatus status) {
+        return mongoTemplate.updateFirst(held(job, fencingToken), new Update()
+                .set("lastRunAt", ranAt)
+                .set("nextRunAt", nextRunAt)
+                .set("lastStatus", status), JobLease.class).getMatchedCount() > 0;
+    }
+
+    public void release(String job, long fencingToken) {
+        mongoTemplate.updateFirst(held(job, fencingToken), AggregationUpdate.update().set("expiresAt").toValue(NOW),
+                JobLease.class);
+    }
+
+    private static AggregationExpression nowPlus(Duration ttl) {
+        return context -> new Document("$add", List.of("$$NOW", ttl.toMillis()));
+    }
+
+    private Query held(String job, long fencingToken) {
+        return Query.query(Criteria.where("_id").is(job).and("owner").is(owner).and("fencingToken").is(fencingToken));
+    }
+}
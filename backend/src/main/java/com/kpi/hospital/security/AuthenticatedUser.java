@@ -0,0 +1,31 @@
+﻿package com.kpi.hospital.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import lombok.Getter;
+
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final String userId;
+
+    private final String hospitalId;
+
+    private final long securityVersion;
+
+    public AuthenticatedUser(String userId, String username, String password, String hospitalId, long securityVersion,
+            boolean enabled, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, enabled, authorities);
+        this.userId = userId;
+        this.hospitalId = hospitalId;
+        this.securityVersion = securityVersion;
+    }
+
+    public AuthenticatedUser withPassword(String password) {
+        return new AuthenticatedUser(userId, getUsername(), password, hospitalId, securityVersion, isEnabled(),
+                getAuthorities());
+    }
+}
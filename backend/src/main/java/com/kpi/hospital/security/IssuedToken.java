@@ -0,0 +1,17 @@
+﻿package com.kpi.hospital.security;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class IssuedToken {
+
+    String token;
+
+    String tokenId;
+
+    Instant expiresAt;
+}
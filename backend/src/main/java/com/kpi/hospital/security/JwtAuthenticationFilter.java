@@ -9,6 +9,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.kpi.hospital.metrics.MetricScope;
+
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenService jwtTokenService;
+    private final TokenDenylist tokenDenylist;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -29,8 +33,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = resolveToken(request);
             if (StringUtils.hasText(token)) {
-                Authentication authentication = jwtTokenService.parseToken(token);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                Claims claims = jwtTokenService.parseClaims(token);
+                if (tokenDenylist.isRevoked(claims.getId())) {
+                    log.debug("Rejected revoked token {}", claims.getId());
+                } else {
+                    Authentication authentication = jwtTokenService.toAuthentication(claims, token);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    request.setAttribute(MetricScope.REQUEST_ATTRIBUTE, MetricScope.of(authentication));
+                }
             }
         } catch (Exception ex) {
             log.warn("Failed to authenticate request: {}", ex.getMessage());
@@ -39,6 +49,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Async results are written on a second dispatch that must be authenticated again.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     private String resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
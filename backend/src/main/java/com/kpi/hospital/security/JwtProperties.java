@@ -3,6 +3,7 @@
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 
@@ -21,4 +22,34 @@ public class JwtProperties {
 
     @Positive
     private long expirationMinutes;
+
+    private boolean statelessAuthentication = true;
+
+    @Valid
+    private ClaimsCache claimsCache = new ClaimsCache();
+
+    @Valid
+    private Revocation revocation = new Revocation();
+
+    @Data
+    public static class ClaimsCache {
+
+        private boolean enabled = true;
+
+        @Positive
+        private long maximumSize = 10_000;
+    }
+
+    @Data
+    public static class Revocation {
+
+        @Positive
+        private long expectedRevocations = 100_000;
+
+        @Positive
+        private double falsePositiveProbability = 0.001;
+
+        @Positive
+        private long refreshIntervalMs = 5_000;
+    }
 }
@@ -1,63 +1,181 @@
 ﻿package com.kpi.hospital.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.crypto.SecretKey;
+
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
 public class JwtTokenService {
 
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ID_CLAIM = "uid";
+    static final String HOSPITAL_ID_CLAIM = "hid";
+    static final String SECURITY_VERSION_CLAIM = "ver";
+
     private final JwtProperties jwtProperties;
     private final UserDetailsService userDetailsService;
+    private final UserSecurityVersions userSecurityVersions;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtTokenService(JwtProperties jwtProperties, UserDetailsService userDetailsService,
+            UserSecurityVersions userSecurityVersions) {
+        this.jwtProperties = jwtProperties;
+        this.userDetailsService = userDetailsService;
+        this.userSecurityVersions = userSecurityVersions;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret()));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedClaims = jwtProperties.getClaimsCache().isEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(jwtProperties.getClaimsCache().getMaximumSize())
+                        .expireAfter(new TokenExpiry())
+                        .build()
+                : null;
+    }
 
     public String generateToken(Authentication authentication) {
-        Instant now = Instant.now();
+        return issueToken(authentication).getToken();
+    }
+
+    public IssuedToken issueToken(Authentication authentication) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
         Instant expiry = now.plusSeconds(jwtProperties.getExpirationMinutes() * 60);
+        String tokenId = UUID.randomUUID().toString();
         String authorities = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(authentication.getName())
-                .claim("roles", authorities)
+                .claim(ROLES_CLAIM, authorities);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            builder.claim(USER_ID_CLAIM, user.getUserId())
+                    .claim(HOSPITAL_ID_CLAIM, user.getHospitalId())
+                    .claim(SECURITY_VERSION_CLAIM, user.getSecurityVersion());
+        }
+        String token = builder
+                .setId(tokenId)
                 .setIssuer(jwtProperties.getIssuer())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiry))
-                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret())), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
+        return IssuedToken.builder()
+                .token(token)
+                .tokenId(tokenId)
+                .expiresAt(expiry)
+                .build();
     }
 
     public Authentication parseToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret())))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return toAuthentication(parseClaims(token), token);
+    }
+
+    public Authentication toAuthentication(Claims claims, String token) {
         String username = claims.getSubject();
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = jwtProperties.isStatelessAuthentication()
+                ? toAuthenticatedUser(claims)
+                : userDetailsService.loadUserByUsername(username);
         return new UsernamePasswordAuthenticationToken(userDetails, token, userDetails.getAuthorities());
     }
 
+    public Claims parseClaims(String token) {
+        if (verifiedClaims == null) {
+            return verify(token);
+        }
+        String digest = digest(token);
+        Claims cached = verifiedClaims.getIfPresent(digest);
+        if (cached != null && cached.getExpiration().toInstant().isAfter(Instant.now())) {
+            return cached;
+        }
+        Claims claims = verify(token);
+        verifiedClaims.put(digest, claims);
+        return claims;
+    }
+
     public Instant getExpiryFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret())))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getExpiration().toInstant();
+        return parseClaims(token).getExpiration().toInstant();
+    }
+
+    private AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Number version = claims.get(SECURITY_VERSION_CLAIM, Number.class);
+        long securityVersion = version == null ? 0L : version.longValue();
+        if (!userSecurityVersions.isCurrent(claims.getSubject(), securityVersion)) {
+            throw new CredentialsExpiredException("Token was issued before the user's last security change");
+        }
+        String roles = claims.get(ROLES_CLAIM, String.class);
+        List<SimpleGrantedAuthority> authorities = !StringUtils.hasText(roles) ? List.of()
+                : Arrays.stream(roles.split(","))
+                        .map(SimpleGrantedAuthority::new)
+                        .toList();
+        return new AuthenticatedUser(claims.get(USER_ID_CLAIM, String.class), claims.getSubject(), "",
+                claims.get(HOSPITAL_ID_CLAIM, String.class), securityVersion, true, authorities);
+    }
+
+    private Claims verify(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
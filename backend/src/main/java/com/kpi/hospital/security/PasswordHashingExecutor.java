@@ -0,0 +1,133 @@
+﻿package com.kpi.hospital.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor bulkExecutor;
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+    private final Timer bulkSliceTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new HashingThreadFactory("password-hashing-"), new ThreadPoolExecutor.AbortPolicy());
+        this.bulkExecutor = new ThreadPoolExecutor(properties.getBulkThreads(), properties.getBulkThreads(), 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getBulkThreads()),
+                new HashingThreadFactory("password-bulk-hashing-"), new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent verifying or hashing passwords")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Time password work waited for a hashing thread")
+                .register(meterRegistry);
+        this.bulkSliceTimer = Timer.builder("auth.password.bulk.slice")
+                .description("Time spent hashing one slice of a bulk provisioning batch")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Password work rejected because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password work waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.bulk.active", bulkExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Bulk hashing threads currently busy")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(bulkExecutor, "password-bulk-hashing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            }, executor);
+        } catch (RuntimeException ex) {
+            rejectedCounter.increment();
+            throw ex;
+        }
+    }
+
+    public <T, R> List<R> mapAll(List<T> items, Function<T, R> task) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        int slices = Math.min(bulkExecutor.getMaximumPoolSize(), items.size());
+        int sliceSize = (items.size() + slices - 1) / slices;
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(slices);
+        try {
+            for (int from = 0; from < items.size(); from += sliceSize) {
+                List<T> slice = items.subList(from, Math.min(from + sliceSize, items.size()));
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> bulkSliceTimer.record(() -> slice.stream().map(task).toList()), bulkExecutor));
+            }
+        } catch (RuntimeException ex) {
+            rejectedCounter.increment();
+            futures.forEach(future -> future.cancel(false));
+            throw ex;
+        }
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            futures.forEach(future -> results.addAll(future.join()));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        private HashingThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+﻿package com.kpi.hospital.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "auth.password-hashing")
+public class PasswordHashingProperties {
+
+    @Positive
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    @Positive
+    private int queueCapacity = 64;
+
+    @Positive
+    private int bulkThreads = Runtime.getRuntime().availableProcessors();
+
+    @Min(4)
+    @Max(31)
+    private int bcryptStrength = 10;
+}
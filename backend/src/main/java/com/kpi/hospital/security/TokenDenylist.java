@@ -0,0 +1,105 @@
+﻿package com.kpi.hospital.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.model.RevokedToken;
+import com.kpi.hospital.repository.RevokedTokenRepository;
+import com.kpi.hospital.util.BloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class TokenDenylist implements SmartInitializingSingleton {
+
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JwtProperties jwtProperties;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private long filterCapacity;
+    private volatile Instant lastRevokedAt = Instant.EPOCH;
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository, MongoTemplate mongoTemplate,
+            JwtProperties jwtProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.jwtProperties = jwtProperties;
+        rebuildFilter();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        revokedTokenRepository.findByExpiresAtAfter(Instant.now()).forEach(this::record);
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    public void revoke(RevokedToken token) {
+        Document fields = new Document("subject", literal(token.getSubject()))
+                .append("revokedBy", literal(token.getRevokedBy()))
+                .append("reason", literal(token.getReason()))
+                .append("expiresAt", literal(Date.from(token.getExpiresAt())))
+                // Other nodes page on revokedAt, so it comes from the server's clock rather than this node's.
+                .append("revokedAt", new Document("$toDate", "$$NOW"));
+        record(mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(token.getTokenId())),
+                AggregationUpdate.from(List.of(context -> new Document("$set", fields))),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), RevokedToken.class));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        Instant since = lastRevokedAt.minus(REFRESH_OVERLAP);
+        revokedTokenRepository.findByRevokedAtGreaterThanEqualOrderByRevokedAtAsc(since).forEach(this::record);
+        Instant now = Instant.now();
+        boolean purged = revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        if (purged || revoked.size() > filterCapacity) {
+            rebuildFilter();
+        }
+    }
+
+    private synchronized void record(RevokedToken token) {
+        if (revoked.put(token.getTokenId(), token.getExpiresAt()) == null) {
+            bloomFilter.put(token.getTokenId());
+        }
+        if (token.getRevokedAt() != null && token.getRevokedAt().isAfter(lastRevokedAt)) {
+            lastRevokedAt = token.getRevokedAt();
+        }
+    }
+
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private synchronized void rebuildFilter() {
+        JwtProperties.Revocation settings = jwtProperties.getRevocation();
+        filterCapacity = Math.max(settings.getExpectedRevocations(), revoked.size() * 2L);
+        BloomFilter rebuilt = new BloomFilter(filterCapacity, settings.getFalsePositiveProbability());
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+}
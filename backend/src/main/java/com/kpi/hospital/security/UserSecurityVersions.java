@@ -0,0 +1,56 @@
+﻿package com.kpi.hospital.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.invalidation.InvalidationEvent;
+import com.kpi.hospital.invalidation.InvalidationListener;
+import com.kpi.hospital.model.User;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSecurityVersions implements SmartInitializingSingleton, InvalidationListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Query query = new Query(Criteria.where("securityVersion").gt(0));
+        query.fields().include("email", "securityVersion");
+        mongoTemplate.find(query, User.class)
+                .forEach(user -> update(user.getEmail(), user.getSecurityVersion()));
+        log.info("Loaded security versions for {} users", versions.size());
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        if (event.entity() != InvalidationEvent.Entity.USER) {
+            return;
+        }
+        Query query = new Query(Criteria.where("email").is(event.key()));
+        query.fields().include("email", "securityVersion");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user != null) {
+            update(user.getEmail(), user.getSecurityVersion());
+        }
+    }
+
+    public boolean isCurrent(String email, long tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(email, 0L);
+    }
+
+    public void update(String email, long securityVersion) {
+        versions.merge(email, securityVersion, Math::max);
+    }
+}
@@ -0,0 +1,9 @@
+﻿package com.kpi.hospital.service;
+
+import com.kpi.hospital.dto.AnalyticsQueryRequest;
+import com.kpi.hospital.dto.AnalyticsQueryResponse;
+
+public interface AnalyticsService {
+
+    AnalyticsQueryResponse query(AnalyticsQueryRequest request);
+}
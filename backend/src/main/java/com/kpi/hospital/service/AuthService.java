@@ -1,13 +1,24 @@
 ﻿package com.kpi.hospital.service;
 
+import java.util.concurrent.CompletableFuture;
+
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
 import com.kpi.hospital.dto.LoginRequest;
 import com.kpi.hospital.dto.LoginResponse;
 import com.kpi.hospital.dto.RegisterUserRequest;
+import com.kpi.hospital.dto.TokenRevocationRequest;
 import com.kpi.hospital.dto.UserDto;
 
 public interface AuthService {
 
-    LoginResponse login(LoginRequest request);
+    CompletableFuture<LoginResponse> login(LoginRequest request);
 
     UserDto register(RegisterUserRequest request);
+
+    BulkProvisioningResponse registerAll(BulkProvisioningRequest<RegisterUserRequest> request);
+
+    void logout(String token);
+
+    void revoke(TokenRevocationRequest request, String revokedBy);
 }
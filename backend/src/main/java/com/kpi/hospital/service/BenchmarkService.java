@@ -0,0 +1,10 @@
+﻿package com.kpi.hospital.service;
+
+import com.kpi.hospital.dto.PeerBenchmarkResponse;
+
+public interface BenchmarkService {
+
+    PeerBenchmarkResponse getDistribution(String metric, String department);
+
+    PeerBenchmarkResponse getHospitalBenchmark(String hospitalId, String metric, String department);
+}
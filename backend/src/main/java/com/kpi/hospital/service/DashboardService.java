@@ -1,8 +1,12 @@
 ﻿package com.kpi.hospital.service;
 
+import org.springframework.security.core.Authentication;
+
 import com.kpi.hospital.dto.DashboardSummaryResponse;
 
 public interface DashboardService {
 
     DashboardSummaryResponse getSummaryForUser(String userEmail);
+
+    String getSummaryETag(Authentication authentication);
 }
@@ -0,0 +1,19 @@
+﻿package com.kpi.hospital.service;
+
+import java.util.List;
+
+import com.kpi.hospital.dto.ClusterJobResponse;
+import com.kpi.hospital.dto.ClusterStatusResponse;
+import com.kpi.hospital.dto.JobExecutionResponse;
+import com.kpi.hospital.dto.SlowQueryResponse;
+
+public interface DiagnosticsService {
+
+    List<SlowQueryResponse> getSlowQueries(String collection, Long minDurationMs, int limit);
+
+    ClusterStatusResponse getClusterStatus();
+
+    List<ClusterJobResponse> getClusterJobs();
+
+    List<JobExecutionResponse> getJobExecutions(String job, int limit);
+}
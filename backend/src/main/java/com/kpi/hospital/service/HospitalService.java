@@ -1,15 +1,19 @@
 ﻿package com.kpi.hospital.service;
 
-import java.util.List;
-
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.HospitalRequest;
 import com.kpi.hospital.dto.HospitalResponse;
+import com.kpi.hospital.dto.HospitalSearchRequest;
 
 public interface HospitalService {
 
     HospitalResponse createOrUpdateHospital(HospitalRequest request);
 
-    List<HospitalResponse> getHospitals();
+    BulkProvisioningResponse createHospitals(BulkProvisioningRequest<HospitalRequest> request);
+
+    CursorPage<HospitalResponse> getHospitals(HospitalSearchRequest request);
 
     HospitalResponse getHospital(String id);
 
@@ -3,11 +3,17 @@
 import java.util.List;
 
 import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.KpiSeriesColumns;
 import com.kpi.hospital.dto.KpiSubmissionRequest;
+import com.kpi.hospital.util.WireFormat;
 
 public interface KpiService {
 
     KpiResponse submitKpi(KpiSubmissionRequest request, String submittedBy);
 
     List<KpiResponse> getKpiHistoryByHospital(String hospitalId);
+
+    List<KpiSeriesColumns> getKpiHistoryColumnsByHospital(String hospitalId);
+
+    String getKpiHistoryETag(String hospitalId, WireFormat format);
 }
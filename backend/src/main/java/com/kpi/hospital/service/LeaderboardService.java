@@ -7,4 +7,6 @@ import com.kpi.hospital.dto.LeaderboardEntry;
 public interface LeaderboardService {
 
     List<LeaderboardEntry> getLeaderboard();
+
+    String getLeaderboardETag();
 }
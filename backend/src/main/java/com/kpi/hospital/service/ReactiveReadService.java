@@ -0,0 +1,27 @@
+﻿package com.kpi.hospital.service;
+
+import java.util.List;
+
+import com.kpi.hospital.dto.AiAnomalyResponse;
+import com.kpi.hospital.dto.AiPredictionResponse;
+import com.kpi.hospital.dto.AiRecommendationResponse;
+import com.kpi.hospital.dto.DashboardSummaryResponse;
+import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.LeaderboardEntry;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveReadService {
+
+    Mono<List<KpiResponse>> getKpiHistoryByHospital(String hospitalId);
+
+    Mono<List<LeaderboardEntry>> getLeaderboard();
+
+    Mono<List<AiPredictionResponse>> getPredictions(String hospitalId);
+
+    Mono<List<AiAnomalyResponse>> getAnomalies(String hospitalId);
+
+    Mono<List<AiRecommendationResponse>> getRecommendations(String hospitalId);
+
+    Mono<DashboardSummaryResponse> getSummaryForUser(String userEmail);
+}
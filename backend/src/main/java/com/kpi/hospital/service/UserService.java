@@ -1,13 +1,13 @@
 ﻿package com.kpi.hospital.service;
 
-import java.util.List;
-
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.UpdateUserRequest;
 import com.kpi.hospital.dto.UserDto;
+import com.kpi.hospital.dto.UserSearchRequest;
 
 public interface UserService {
 
-    List<UserDto> getAllUsers();
+    CursorPage<UserDto> getUsers(UserSearchRequest request);
 
     UserDto getUser(String userId);
 
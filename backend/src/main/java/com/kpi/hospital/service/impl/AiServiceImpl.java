@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.stereotype.Service;
 
+import com.kpi.hospital.coalescing.Coalesced;
 import com.kpi.hospital.dto.AiAnomalyResponse;
 import com.kpi.hospital.dto.AiPredictionResponse;
 import com.kpi.hospital.dto.AiRecommendationResponse;
@@ -29,21 +30,25 @@ public class AiServiceImpl implements AiService {
     private final MlGatewayClient mlGatewayClient;
 
     @Override
+    @Coalesced
     public List<AiPredictionResponse> getPredictions(String hospitalId) {
         return aiPredictionEngine.generatePredictions(hospitalId);
     }
 
     @Override
+    @Coalesced
     public List<AiAnomalyResponse> getAnomalies(String hospitalId) {
         return aiAnomalyDetector.detectAnomalies(hospitalId);
     }
 
     @Override
+    @Coalesced
     public List<AiRecommendationResponse> getRecommendations(String hospitalId) {
         return aiRecommendationEngine.generateRecommendations(hospitalId);
     }
 
     @Override
+    @Coalesced
     public List<FederatedStatusResponse> getFederatedStatus() {
         return federatedLearningSimulator.getFederatedStatuses();
     }
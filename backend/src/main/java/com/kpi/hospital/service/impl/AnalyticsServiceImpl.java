@@ -0,0 +1,190 @@
+﻿package com.kpi.hospital.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kpi.hospital.analytics.AnalyticsDimension;
+import com.kpi.hospital.analytics.AnalyticsProperties;
+import com.kpi.hospital.analytics.AnalyticsQuery;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.coalescing.SingleFlight;
+import com.kpi.hospital.dto.AnalyticsQueryRequest;
+import com.kpi.hospital.dto.AnalyticsQueryResponse;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.service.AnalyticsService;
+import com.kpi.hospital.tenancy.TenantRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+
+    private static final Comparator<String> VALUE_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+    private static final Comparator<List<String>> GROUP_ORDER = (a, b) -> {
+        for (int i = 0; i < a.size(); i++) {
+            int order = VALUE_ORDER.compare(a.get(i), b.get(i));
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    };
+
+    private final MongoTemplate mongoTemplate;
+    private final HospitalDirectory hospitalDirectory;
+    private final KpiDataVersions kpiDataVersions;
+    private final TenantRouter tenantRouter;
+    private final SingleFlight singleFlight;
+    private final Cache<CacheKey, AnalyticsQueryResponse> results;
+
+    public AnalyticsServiceImpl(MongoTemplate mongoTemplate, HospitalDirectory hospitalDirectory,
+            KpiDataVersions kpiDataVersions, TenantRouter tenantRouter, SingleFlight singleFlight,
+            AnalyticsProperties properties, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.hospitalDirectory = hospitalDirectory;
+        this.kpiDataVersions = kpiDataVersions;
+        this.tenantRouter = tenantRouter;
+        this.singleFlight = singleFlight;
+        this.results = properties.getCache().isEnabled()
+                ? CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                        .maximumSize(properties.getCache().getMaximumSize())
+                        .expireAfterWrite(Duration.ofMillis(properties.getCache().getExpireAfterWriteMs()))
+                        .recordStats()
+                        .<CacheKey, AnalyticsQueryResponse>build(), "analytics")
+                : null;
+    }
+
+    @Override
+    public AnalyticsQueryResponse query(AnalyticsQueryRequest request) {
+        AnalyticsQuery query = AnalyticsQuery.of(request);
+        // Versions are read before the data, so a write landing mid-query bumps them and is not hidden by this entry.
+        CacheKey key = new CacheKey(query, kpiDataVersions.globalVersion(), hospitalDirectory.version());
+        AnalyticsQueryResponse cached = results != null ? results.getIfPresent(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        AnalyticsQueryResponse response = singleFlight.execute("AnalyticsService.query", key, () -> execute(query));
+        if (results != null) {
+            results.put(key, response);
+        }
+        return response;
+    }
+
+    private AnalyticsQueryResponse execute(AnalyticsQuery query) {
+        Set<String> scope = hospitalScope(query);
+        List<Document> partials = scope != null && scope.isEmpty() ? List.of() : aggregate(query, scope);
+        return toResponse(query, partials, hospitalDirectory);
+    }
+
+    private List<Document> aggregate(AnalyticsQuery query, Collection<String> scope) {
+        Aggregation aggregation = query.toAggregation(scope);
+        return tenantRouter.fanOutAll(
+                () -> mongoTemplate.aggregate(aggregation, "kpi_series", Document.class).getMappedResults());
+    }
+
+    private Set<String> hospitalScope(AnalyticsQuery query) {
+        if (!query.filtersHospitalAttributes()) {
+            return query.hospitalIds();
+        }
+        return hospitalDirectory.all().stream()
+                .filter(hospital -> query.cities() == null || query.cities().contains(hospital.getCity()))
+                .filter(hospital -> query.countries() == null || query.countries().contains(hospital.getCountry()))
+                .map(Hospital::getId)
+                .filter(id -> query.hospitalIds() == null || query.hospitalIds().contains(id))
+                .collect(Collectors.toSet());
+    }
+
+    static AnalyticsQueryResponse toResponse(AnalyticsQuery query, List<Document> partials,
+            HospitalDirectory hospitalDirectory) {
+        List<String> groupFields = query.groupFields();
+        Map<List<String>, Partial> groups = new HashMap<>();
+        for (Document row : partials) {
+            String hospitalId = groupValue(row, groupFields, AnalyticsDimension.HOSPITAL.field());
+            Optional<Hospital> hospital = hospitalId != null ? hospitalDirectory.findById(hospitalId)
+                    : Optional.empty();
+            List<String> group = new ArrayList<>(query.groupBy().size());
+            for (AnalyticsDimension dimension : query.groupBy()) {
+                group.add(switch (dimension) {
+                    case HOSPITAL -> hospitalId;
+                    case CITY -> hospital.map(Hospital::getCity).orElse(null);
+                    case COUNTRY -> hospital.map(Hospital::getCountry).orElse(null);
+                    case DEPARTMENT, METRIC -> groupValue(row, groupFields, dimension.field());
+                });
+            }
+            groups.computeIfAbsent(group, ignored -> new Partial()).add(row);
+        }
+        List<AnalyticsQueryResponse.AnalyticsRow> rows = groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(GROUP_ORDER))
+                .map(entry -> {
+                    Map<String, String> group = new LinkedHashMap<>();
+                    for (int i = 0; i < query.groupBy().size(); i++) {
+                        group.put(query.groupBy().get(i).field(), entry.getKey().get(i));
+                    }
+                    Partial partial = entry.getValue();
+                    return AnalyticsQueryResponse.AnalyticsRow.builder()
+                            .group(group)
+                            .value(query.aggregate().apply(partial.count, partial.sum, partial.min, partial.max))
+                            .count(partial.count)
+                            .build();
+                })
+                .collect(Collectors.toList());
+        return AnalyticsQueryResponse.builder()
+                .groupBy(query.groupBy())
+                .aggregate(query.aggregate())
+                .from(query.from())
+                .to(query.to())
+                .rows(rows)
+                .build();
+    }
+
+    private static String groupValue(Document row, List<String> groupFields, String field) {
+        if (!groupFields.contains(field)) {
+            return null;
+        }
+        Object id = row.get("_id");
+        if (id instanceof Document fields) {
+            return fields.getString(field);
+        }
+        return groupFields.size() == 1 && id != null ? id.toString() : null;
+    }
+
+    private record CacheKey(AnalyticsQuery query, long dataVersion, long directoryVersion) {
+    }
+
+    private static final class Partial {
+
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(Document row) {
+            count += number(row, "count").longValue();
+            sum += number(row, "sum").doubleValue();
+            min = Math.min(min, number(row, "min").doubleValue());
+            max = Math.max(max, number(row, "max").doubleValue());
+        }
+
+        private static Number number(Document row, String field) {
+            return row.get(field) instanceof Number value ? value : 0;
+        }
+    }
+}
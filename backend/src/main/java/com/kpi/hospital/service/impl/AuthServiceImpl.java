@@ -1,9 +1,17 @@
 ﻿package com.kpi.hospital.service.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -11,21 +19,30 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
 import com.kpi.hospital.dto.LoginRequest;
 import com.kpi.hospital.dto.LoginResponse;
 import com.kpi.hospital.dto.RegisterUserRequest;
+import com.kpi.hospital.dto.TokenRevocationRequest;
 import com.kpi.hospital.dto.UserDto;
-import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.RevokedToken;
 import com.kpi.hospital.model.Role;
 import com.kpi.hospital.model.RoleType;
 import com.kpi.hospital.model.User;
 import com.kpi.hospital.repository.HospitalRepository;
 import com.kpi.hospital.repository.RoleRepository;
 import com.kpi.hospital.repository.UserRepository;
+import com.kpi.hospital.security.IssuedToken;
+import com.kpi.hospital.security.JwtProperties;
 import com.kpi.hospital.security.JwtTokenService;
+import com.kpi.hospital.security.PasswordHashingExecutor;
+import com.kpi.hospital.security.TokenDenylist;
 import com.kpi.hospital.service.AuthService;
 import com.kpi.hospital.util.DtoMapper;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -38,19 +55,28 @@ public class AuthServiceImpl implements AuthService {
     private final RoleRepository roleRepository;
     private final HospitalRepository hospitalRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenDenylist tokenDenylist;
+    private final JwtProperties jwtProperties;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final MongoTemplate mongoTemplate;
+    private final HospitalDirectory hospitalDirectory;
+    private final BulkRows bulkRows;
 
     @Override
-    public LoginResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-        String token = jwtTokenService.generateToken(authentication);
-        Instant expiresAt = jwtTokenService.getExpiryFromToken(token);
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
+        return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())))
+                .thenApply(this::toLoginResponse);
+    }
+
+    private LoginResponse toLoginResponse(Authentication authentication) {
+        IssuedToken issuedToken = jwtTokenService.issueToken(authentication);
         Set<String> roles = authentication.getAuthorities().stream()
                 .map(granted -> granted.getAuthority())
-                .collect(java.util.stream.Collectors.toSet());
+                .collect(Collectors.toSet());
         return LoginResponse.builder()
-                .token(token)
-                .expiresAt(expiresAt)
+                .token(issuedToken.getToken())
+                .expiresAt(issuedToken.getExpiresAt())
                 .roles(roles)
                 .build();
     }
@@ -61,30 +87,155 @@ public class AuthServiceImpl implements AuthService {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Email already registered");
         }
-        Hospital hospital = null;
-        if (request.getHospitalId() != null) {
-            hospital = hospitalRepository.findById(request.getHospitalId())
-                    .orElseThrow(() -> new IllegalArgumentException("Hospital not found"));
+        if (request.getHospitalId() != null && !hospitalRepository.existsById(request.getHospitalId())) {
+            throw new IllegalArgumentException("Hospital not found");
         }
-        Set<Role> roles = new HashSet<>();
-        for (RoleType roleType : request.getRoles()) {
-            Role role = roleRepository.findByName(roleType)
-                    .orElseGet(() -> roleRepository.save(Role.builder()
-                            .name(roleType)
-                            .description("Auto-provisioned role " + roleType.name())
-                            .permissions(Set.of())
-                            .build()));
-            roles.add(role);
+        ensureRoles(request.getRoles());
+        User user = toUser(request, passwordEncoder.encode(request.getPassword()));
+        return DtoMapper.toUserDto(userRepository.save(user));
+    }
+
+    @Override
+    public BulkProvisioningResponse registerAll(BulkProvisioningRequest<RegisterUserRequest> request) {
+        List<RegisterUserRequest> rows = request.getItems();
+        String[] keys = new String[rows.size()];
+        String[] ids = new String[rows.size()];
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            errors[i] = bulkRows.validate(rows.get(i));
+            keys[i] = rows.get(i) != null ? rows.get(i).getEmail() : null;
+        }
+
+        Set<String> emails = new HashSet<>();
+        Set<String> hospitalIds = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null) {
+                emails.add(keys[i]);
+                if (rows.get(i).getHospitalId() != null) {
+                    hospitalIds.add(rows.get(i).getHospitalId());
+                }
+            }
         }
-        User user = User.builder()
+        Set<String> existingEmails = userRepository.findEmailsIn(emails).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+        Set<String> knownHospitalIds = resolveHospitalIds(hospitalIds);
+
+        Set<String> seenEmails = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        Set<RoleType> roles = EnumSet.noneOf(RoleType.class);
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            RegisterUserRequest row = rows.get(i);
+            if (existingEmails.contains(row.getEmail())) {
+                errors[i] = "Email already registered";
+            } else if (!seenEmails.add(row.getEmail())) {
+                errors[i] = "Duplicate email in batch";
+            } else if (row.getHospitalId() != null && !knownHospitalIds.contains(row.getHospitalId())) {
+                errors[i] = "Hospital not found";
+            } else {
+                accepted.add(i);
+                roles.addAll(row.getRoles());
+            }
+        }
+        if (accepted.isEmpty()) {
+            return BulkRows.toResponse(keys, ids, errors);
+        }
+
+        ensureRoles(roles);
+        List<String> passwords = passwordHashingExecutor.mapAll(accepted,
+                index -> passwordEncoder.encode(rows.get(index).getPassword()));
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            users.add(toUser(rows.get(accepted.get(i)), passwords.get(i)));
+        }
+        Set<Integer> duplicates = BulkRows.insertUnordered(mongoTemplate, users, User.class);
+        Set<String> insertedEmails = new HashSet<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            if (duplicates.contains(i)) {
+                errors[accepted.get(i)] = "Email already registered";
+            } else {
+                insertedEmails.add(users.get(i).getEmail());
+            }
+        }
+        Map<String, String> idsByEmail = userRepository.findEmailsIn(insertedEmails).stream()
+                .collect(Collectors.toMap(User::getEmail, User::getId));
+        for (int i = 0; i < accepted.size(); i++) {
+            if (!duplicates.contains(i)) {
+                ids[accepted.get(i)] = idsByEmail.get(users.get(i).getEmail());
+            }
+        }
+        return BulkRows.toResponse(keys, ids, errors);
+    }
+
+    private Set<String> resolveHospitalIds(Set<String> hospitalIds) {
+        Set<String> known = new HashSet<>();
+        List<String> misses = new ArrayList<>();
+        for (String hospitalId : hospitalIds) {
+            if (hospitalDirectory.findById(hospitalId).isPresent()) {
+                known.add(hospitalId);
+            } else {
+                misses.add(hospitalId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            hospitalRepository.findAllById(misses).forEach(hospital -> known.add(hospital.getId()));
+        }
+        return known;
+    }
+
+    private void ensureRoles(Collection<RoleType> roleTypes) {
+        Set<RoleType> missing = EnumSet.copyOf(roleTypes);
+        roleRepository.findByNameIn(roleTypes).forEach(role -> missing.remove(role.getName()));
+        if (missing.isEmpty()) {
+            return;
+        }
+        roleRepository.saveAll(missing.stream()
+                .map(roleType -> Role.builder()
+                        .name(roleType)
+                        .description("Auto-provisioned role " + roleType.name())
+                        .permissions(Set.of())
+                        .build())
+                .toList());
+    }
+
+    private static User toUser(RegisterUserRequest request, String encodedPassword) {
+        return User.builder()
                 .email(request.getEmail())
                 .fullName(request.getFullName())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .title(request.getTitle())
-                .hospital(hospital)
-                .roles(roles)
+                .hospitalId(request.getHospitalId())
+                .roles(EnumSet.copyOf(request.getRoles()))
                 .active(true)
                 .build();
-        return DtoMapper.toUserDto(userRepository.save(user));
+    }
+
+    @Override
+    public void logout(String token) {
+        Claims claims = jwtTokenService.parseClaims(token);
+        if (claims.getId() == null) {
+            throw new IllegalArgumentException("Token has no identifier and cannot be revoked");
+        }
+        tokenDenylist.revoke(RevokedToken.builder()
+                .tokenId(claims.getId())
+                .subject(claims.getSubject())
+                .revokedBy(claims.getSubject())
+                .reason("logout")
+                .expiresAt(claims.getExpiration().toInstant())
+                .build());
+    }
+
+    @Override
+    public void revoke(TokenRevocationRequest request, String revokedBy) {
+        tokenDenylist.revoke(RevokedToken.builder()
+                .tokenId(request.getTokenId())
+                .subject(request.getSubject())
+                .revokedBy(revokedBy)
+                .reason(request.getReason())
+                .expiresAt(Instant.now().plusSeconds(jwtProperties.getExpirationMinutes() * 60))
+                .build());
     }
 }
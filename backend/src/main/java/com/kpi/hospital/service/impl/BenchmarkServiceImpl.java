@@ -0,0 +1,58 @@
+﻿package com.kpi.hospital.service.impl;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.kpi.hospital.dto.PeerBenchmarkResponse;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.peer.PeerBenchmarks;
+import com.kpi.hospital.peer.SketchKey;
+import com.kpi.hospital.peer.TDigest;
+import com.kpi.hospital.repository.KpiSeriesRepository;
+import com.kpi.hospital.service.BenchmarkService;
+import com.kpi.hospital.tenancy.TenantRouter;
+import com.kpi.hospital.util.DtoMapper;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class BenchmarkServiceImpl implements BenchmarkService {
+
+    private final PeerBenchmarks peerBenchmarks;
+    private final KpiSeriesRepository kpiSeriesRepository;
+    private final TenantRouter tenantRouter;
+
+    @Override
+    public PeerBenchmarkResponse getDistribution(String metric, String department) {
+        return DtoMapper.toPeerBenchmarkResponse(sketch(metric, department), metric, department, null, null);
+    }
+
+    @Override
+    public PeerBenchmarkResponse getHospitalBenchmark(String hospitalId, String metric, String department) {
+        TDigest sketch = sketch(metric, department);
+        List<KpiSeries> series = tenantRouter.forHospital(hospitalId, () -> department != null
+                ? kpiSeriesRepository.findByHospitalIdAndDepartmentAndMetric(hospitalId, department, metric)
+                        .map(List::of)
+                        .orElse(List.of())
+                : kpiSeriesRepository.findByHospitalIdAndMetric(hospitalId, metric));
+        KpiPoint latest = series.stream()
+                .filter(row -> row.getHistory() != null)
+                .flatMap(row -> row.getHistory().stream())
+                .filter(point -> point.getValue() != null && point.getTimestamp() != null)
+                .max(Comparator.comparing(KpiPoint::getTimestamp))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Hospital " + hospitalId + " has no values for " + metric));
+        return DtoMapper.toPeerBenchmarkResponse(sketch, metric, department, hospitalId, latest);
+    }
+
+    private TDigest sketch(String metric, String department) {
+        SketchKey key = department != null ? SketchKey.of(metric, department) : SketchKey.allDepartments(metric);
+        return peerBenchmarks.sketch(key)
+                .filter(digest -> digest.count() > 0)
+                .orElseThrow(() -> new IllegalArgumentException("No peer data for " + key.id()));
+    }
+}
@@ -0,0 +1,81 @@
+﻿package com.kpi.hospital.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.dto.BulkProvisioningResponse;
+import com.kpi.hospital.dto.BulkRowResult;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@RequiredArgsConstructor
+class BulkRows {
+
+    private final Validator validator;
+
+    String validate(Object row) {
+        if (row == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    static Set<Integer> insertUnordered(MongoTemplate mongoTemplate, List<?> documents, Class<?> type) {
+        try {
+            // Bulk inserts do not write generated ids back; callers re-read them by key.
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(documents).execute();
+            return Set.of();
+        } catch (BulkOperationException ex) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw ex;
+                }
+                duplicates.add(error.getIndex());
+            }
+            return duplicates;
+        }
+    }
+
+    static BulkProvisioningResponse toResponse(String[] keys, String[] ids, String[] errors) {
+        List<BulkRowResult> results = new ArrayList<>(keys.length);
+        int created = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (ids[i] != null) {
+                created++;
+            }
+            results.add(BulkRowResult.builder()
+                    .index(i)
+                    .key(keys[i])
+                    .id(ids[i])
+                    .error(errors[i])
+                    .build());
+        }
+        return BulkProvisioningResponse.builder()
+                .requested(keys.length)
+                .created(created)
+                .failed(keys.length - created)
+                .results(results)
+                .build();
+    }
+}
@@ -4,17 +4,25 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.coalescing.SingleFlight;
+import com.kpi.hospital.dto.AiAnomalyResponse;
+import com.kpi.hospital.dto.AiRecommendationResponse;
 import com.kpi.hospital.dto.DashboardSummaryResponse;
 import com.kpi.hospital.model.FederatedLearningState;
 import com.kpi.hospital.model.RoleType;
 import com.kpi.hospital.model.User;
-import com.kpi.hospital.repository.HospitalRepository;
 import com.kpi.hospital.repository.KpiSeriesRepository;
 import com.kpi.hospital.repository.UserRepository;
+import com.kpi.hospital.security.AuthenticatedUser;
 import com.kpi.hospital.service.AiService;
 import com.kpi.hospital.service.DashboardService;
+import com.kpi.hospital.tenancy.TenantRouter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,32 +31,61 @@ import lombok.RequiredArgsConstructor;
 public class DashboardServiceImpl implements DashboardService {
 
     private final UserRepository userRepository;
-    private final HospitalRepository hospitalRepository;
+    private final HospitalDirectory hospitalDirectory;
     private final KpiSeriesRepository kpiSeriesRepository;
     private final AiService aiService;
+    private final KpiDataVersions kpiDataVersions;
+    private final SingleFlight singleFlight;
+    private final TenantRouter tenantRouter;
 
     @Override
     public DashboardSummaryResponse getSummaryForUser(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        RoleType primaryRole = resolvePrimaryRole(user);
-        boolean scopedToHospital = primaryRole == RoleType.MANAGER;
-        String hospitalId = scopedToHospital && user.getHospital() != null ? user.getHospital().getId() : null;
+        String hospitalId = hospitalScope(user);
+        return singleFlight.execute("DashboardService.summary", hospitalId, () -> {
+            long monitoredKpis = hospitalId != null
+                    ? tenantRouter.forHospital(hospitalId, () -> kpiSeriesRepository.countByHospitalId(hospitalId))
+                    : tenantRouter.fanOut(kpiSeriesRepository::count).stream().mapToLong(Long::longValue).sum();
+            return summarize(hospitalId, monitoredKpis, aiService.getAnomalies(hospitalId),
+                    aiService.getRecommendations(hospitalId), hospitalDirectory);
+        });
+    }
+
+    @Override
+    public String getSummaryETag(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            return null;
+        }
+        boolean networkView = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals("ROLE_ADMIN") || authority.equals("ROLE_DIRECTOR"));
+        if (networkView || user.getHospitalId() == null) {
+            return kpiDataVersions.tag("ds", kpiDataVersions.globalVersion(),
+                    hospitalDirectory.lastModified(), hospitalDirectory.count());
+        }
+        return kpiDataVersions.tag("ds-" + user.getHospitalId(),
+                kpiDataVersions.hospitalVersion(user.getHospitalId()));
+    }
+
+    static String hospitalScope(User user) {
+        return resolvePrimaryRole(user) == RoleType.MANAGER ? user.getHospitalId() : null;
+    }
 
-        long totalHospitals = scopedToHospital && hospitalId != null ? 1L : hospitalRepository.count();
-        long activeHospitals = scopedToHospital && hospitalId != null ? 1L
-                : hospitalRepository.countByFederatedState(FederatedLearningState.ONLINE)
-                        + hospitalRepository.countByFederatedState(FederatedLearningState.TRAINING);
-        long monitoredKpis = scopedToHospital && hospitalId != null
-                ? (long) kpiSeriesRepository.findByHospitalId(hospitalId).size()
-                : kpiSeriesRepository.count();
+    static DashboardSummaryResponse summarize(String hospitalId, long monitoredKpis,
+            List<AiAnomalyResponse> anomalies, List<AiRecommendationResponse> recommendations,
+            HospitalDirectory hospitalDirectory) {
+        long totalHospitals = hospitalId != null ? 1L : hospitalDirectory.count();
+        long activeHospitals = hospitalId != null ? 1L
+                : hospitalDirectory.countByState(FederatedLearningState.ONLINE)
+                        + hospitalDirectory.countByState(FederatedLearningState.TRAINING);
 
-        List<String> alerts = aiService.getAnomalies(hospitalId).stream()
+        List<String> alerts = anomalies.stream()
                 .limit(3)
                 .map(anomaly -> String.format("%s in %s (%s) deviation %.2f", anomaly.getMetric(),
                         anomaly.getDepartment(), anomaly.getSeverity(), anomaly.getDeviation()))
                 .collect(Collectors.toList());
-        List<String> recommendations = aiService.getRecommendations(hospitalId).stream()
+        List<String> recommendationTexts = recommendations.stream()
                 .limit(3)
                 .map(rec -> rec.getRecommendation())
                 .collect(Collectors.toList());
@@ -58,13 +95,12 @@ public class DashboardServiceImpl implements DashboardService {
                 .activeHospitals(activeHospitals)
                 .monitoredKpis(monitoredKpis)
                 .alerts(alerts)
-                .recommendations(recommendations)
+                .recommendations(recommendationTexts)
                 .build();
     }
 
-    private RoleType resolvePrimaryRole(User user) {
-        Set<RoleType> roleTypes = user.getRoles() == null ? Set.of()
-                : user.getRoles().stream().map(role -> role.getName()).collect(Collectors.toSet());
+    private static RoleType resolvePrimaryRole(User user) {
+        Set<RoleType> roleTypes = user.getRoles() == null ? Set.of() : user.getRoles();
         if (roleTypes.contains(RoleType.ADMIN)) {
             return RoleType.ADMIN;
         }
@@ -0,0 +1,96 @@
+﻿package com.kpi.hospital.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.kpi.hospital.cluster.ClusterMembership;
+import com.kpi.hospital.cluster.HashRing;
+import com.kpi.hospital.cluster.SeriesProcessor;
+import com.kpi.hospital.dto.ClusterJobResponse;
+import com.kpi.hospital.dto.ClusterStatusResponse;
+import com.kpi.hospital.dto.JobExecutionResponse;
+import com.kpi.hospital.dto.SlowQueryResponse;
+import com.kpi.hospital.model.ClusterMember;
+import com.kpi.hospital.model.JobExecution;
+import com.kpi.hospital.model.JobLease;
+import com.kpi.hospital.model.SlowQuery;
+import com.kpi.hospital.scheduling.ClusterJobScheduler;
+import com.kpi.hospital.service.DiagnosticsService;
+import com.kpi.hospital.util.DtoMapper;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class DiagnosticsServiceImpl implements DiagnosticsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ClusterJobScheduler clusterJobScheduler;
+    private final ClusterMembership clusterMembership;
+    private final SeriesProcessor seriesProcessor;
+
+    @Override
+    public List<SlowQueryResponse> getSlowQueries(String collection, Long minDurationMs, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "recordedAt")).limit(limit);
+        if (StringUtils.hasText(collection)) {
+            query.addCriteria(Criteria.where("collection").is(collection));
+        }
+        if (minDurationMs != null) {
+            query.addCriteria(Criteria.where("durationMs").gte(minDurationMs));
+        }
+        return mongoTemplate.find(query, SlowQuery.class).stream()
+                .map(DtoMapper::toSlowQueryResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ClusterStatusResponse getClusterStatus() {
+        HashRing ring = clusterMembership.ring();
+        return ClusterStatusResponse.builder()
+                .nodeId(clusterMembership.nodeId())
+                .ownedSeries(seriesProcessor.ownedSeries())
+                .queuedObservations(seriesProcessor.queuedObservations())
+                .members(clusterMembership.members().stream()
+                        .sorted(Comparator.comparing(ClusterMember::getNodeId))
+                        .map(member -> DtoMapper.toClusterMemberStatus(member, ring))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @Override
+    public List<ClusterJobResponse> getClusterJobs() {
+        Map<String, Duration> jobs = clusterJobScheduler.jobs();
+        Map<String, JobLease> leases = mongoTemplate
+                .find(new Query(Criteria.where("_id").in(jobs.keySet())), JobLease.class).stream()
+                .collect(Collectors.toMap(JobLease::getJob, lease -> lease));
+        Instant now = Instant.now();
+        return jobs.entrySet().stream()
+                .map(job -> DtoMapper.toClusterJobResponse(job.getKey(), job.getValue(), leases.get(job.getKey()),
+                        now))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<JobExecutionResponse> getJobExecutions(String job, int limit) {
+        if (!clusterJobScheduler.jobs().containsKey(job)) {
+            throw new IllegalArgumentException("Unknown job: " + job);
+        }
+        Query query = new Query(Criteria.where("job").is(job))
+                .with(Sort.by(Sort.Direction.DESC, "startedAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, JobExecution.class).stream()
+                .map(DtoMapper::toJobExecutionResponse)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,17 +1,36 @@
 ﻿package com.kpi.hospital.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.HospitalRequest;
 import com.kpi.hospital.dto.HospitalResponse;
+import com.kpi.hospital.dto.HospitalSearchRequest;
+import com.kpi.hospital.invalidation.InvalidationBus;
+import com.kpi.hospital.invalidation.InvalidationEvent;
 import com.kpi.hospital.model.Hospital;
 import com.kpi.hospital.repository.HospitalRepository;
 import com.kpi.hospital.service.HospitalService;
+import com.kpi.hospital.tenancy.TenantRouter;
 import com.kpi.hospital.util.DtoMapper;
+import com.kpi.hospital.util.KeysetCursor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,7 +38,22 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class HospitalServiceImpl implements HospitalService {
 
+    private static final Map<String, Function<Hospital, String>> SORT_FIELDS = Map.of(
+            "name", Hospital::getName,
+            "code", Hospital::getCode,
+            "city", Hospital::getCity,
+            "country", Hospital::getCountry);
+
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "name", "code", "address", "city", "country", "departments", "directorEmail", "federatedState",
+            "metadata", "tenantId");
+
     private final HospitalRepository hospitalRepository;
+    private final MongoTemplate mongoTemplate;
+    private final HospitalDirectory hospitalDirectory;
+    private final BulkRows bulkRows;
+    private final TenantRouter tenantRouter;
+    private final InvalidationBus invalidationBus;
 
     @Override
     @Transactional
@@ -31,6 +65,92 @@ public class HospitalServiceImpl implements HospitalService {
         } else {
             hospital = new Hospital();
         }
+        tenantRouter.requireKnown(request.getTenantId());
+        if (hospital.getId() != null && !Objects.equals(hospital.getTenantId(), request.getTenantId())) {
+            throw new IllegalArgumentException("Moving a hospital to another tenant is not supported");
+        }
+        apply(hospital, request);
+        Hospital saved = hospitalRepository.save(hospital);
+        hospitalDirectory.put(saved);
+        invalidationBus.publish(InvalidationEvent.Entity.HOSPITAL, saved.getId());
+        return DtoMapper.toHospitalResponse(saved);
+    }
+
+    @Override
+    public BulkProvisioningResponse createHospitals(BulkProvisioningRequest<HospitalRequest> request) {
+        List<HospitalRequest> rows = request.getItems();
+        String[] keys = new String[rows.size()];
+        String[] ids = new String[rows.size()];
+        String[] errors = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            errors[i] = bulkRows.validate(rows.get(i));
+            keys[i] = rows.get(i) != null ? rows.get(i).getCode() : null;
+            if (errors[i] == null && rows.get(i).getId() != null) {
+                errors[i] = "Bulk provisioning only creates hospitals";
+            }
+            if (errors[i] == null && !tenantRouter.isKnown(rows.get(i).getTenantId())) {
+                errors[i] = "Unknown tenant: " + rows.get(i).getTenantId();
+            }
+        }
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] == null) {
+                codes.add(keys[i]);
+            }
+        }
+        Set<String> existingCodes = hospitalRepository.findCodesIn(codes).stream()
+                .map(Hospital::getCode)
+                .collect(Collectors.toSet());
+
+        Set<String> seenCodes = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        List<Hospital> hospitals = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            if (existingCodes.contains(keys[i])) {
+                errors[i] = "Hospital code already exists";
+            } else if (!seenCodes.add(keys[i])) {
+                errors[i] = "Duplicate hospital code in batch";
+            } else {
+                Hospital hospital = new Hospital();
+                apply(hospital, rows.get(i));
+                accepted.add(i);
+                hospitals.add(hospital);
+            }
+        }
+        if (hospitals.isEmpty()) {
+            return BulkRows.toResponse(keys, ids, errors);
+        }
+
+        Set<Integer> duplicates = BulkRows.insertUnordered(mongoTemplate, hospitals, Hospital.class);
+        List<Hospital> inserted = new ArrayList<>(hospitals.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            if (duplicates.contains(i)) {
+                errors[accepted.get(i)] = "Hospital code already exists";
+            } else {
+                inserted.add(hospitals.get(i));
+            }
+        }
+        Map<String, String> idsByCode = hospitalRepository.findCodesIn(
+                inserted.stream().map(Hospital::getCode).toList()).stream()
+                .collect(Collectors.toMap(Hospital::getCode, Hospital::getId));
+        for (int i = 0; i < accepted.size(); i++) {
+            Hospital hospital = hospitals.get(i);
+            if (!duplicates.contains(i)) {
+                hospital.setId(idsByCode.get(hospital.getCode()));
+                ids[accepted.get(i)] = hospital.getId();
+            }
+        }
+        hospitalDirectory.putAll(inserted);
+        invalidationBus.publish(InvalidationEvent.Entity.HOSPITAL,
+                inserted.stream().map(Hospital::getId).toList());
+        return BulkRows.toResponse(keys, ids, errors);
+    }
+
+    private static void apply(Hospital hospital, HospitalRequest request) {
         hospital.setName(request.getName());
         hospital.setCode(request.getCode());
         hospital.setAddress(request.getAddress());
@@ -40,20 +160,49 @@ public class HospitalServiceImpl implements HospitalService {
         hospital.setDirectorEmail(request.getDirectorEmail());
         hospital.setFederatedState(request.getFederatedState());
         hospital.setMetadata(request.getMetadata());
-        Hospital saved = hospitalRepository.save(hospital);
-        return DtoMapper.toHospitalResponse(saved);
+        hospital.setTenantId(request.getTenantId());
     }
 
     @Override
-    public List<HospitalResponse> getHospitals() {
-        return hospitalRepository.findAll().stream()
-                .map(DtoMapper::toHospitalResponse)
-                .collect(Collectors.toList());
+    public CursorPage<HospitalResponse> getHospitals(HospitalSearchRequest request) {
+        Function<Hospital, String> sortValue = SORT_FIELDS.get(request.getSort());
+        if (sortValue == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + request.getSort());
+        }
+        Sort.Direction direction = Sort.Direction.fromString(request.getDirection());
+        Query query = new Query();
+        if (request.getCountry() != null) {
+            query.addCriteria(Criteria.where("country").is(request.getCountry()));
+        }
+        if (request.getCity() != null) {
+            query.addCriteria(Criteria.where("city").is(request.getCity()));
+        }
+        if (request.getFederatedState() != null) {
+            query.addCriteria(Criteria.where("federatedState").is(request.getFederatedState()));
+        }
+        if (request.getCursor() != null) {
+            query.addCriteria(KeysetCursor.decode(request.getCursor()).after(request.getSort(), direction));
+        }
+        if (request.getFields() != null && !request.getFields().isEmpty()) {
+            for (String field : request.getFields()) {
+                if (!PROJECTABLE_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Unsupported field: " + field);
+                }
+                query.fields().include(field);
+            }
+            query.fields().include(request.getSort());
+        } else {
+            query.fields().exclude("metadata");
+        }
+        query.with(Sort.by(direction, request.getSort(), "_id")).limit(request.getLimit() + 1);
+        return KeysetCursor.toPage(mongoTemplate.find(query, Hospital.class), request.getLimit(), Hospital::getId,
+                sortValue, DtoMapper::toHospitalResponse);
     }
 
     @Override
     public HospitalResponse getHospital(String id) {
-        return hospitalRepository.findById(id)
+        return hospitalDirectory.findById(id)
+                .or(() -> hospitalRepository.findById(id))
                 .map(DtoMapper::toHospitalResponse)
                 .orElseThrow(() -> new IllegalArgumentException("Hospital not found"));
     }
@@ -61,5 +210,7 @@ public class HospitalServiceImpl implements HospitalService {
     @Override
     public void deleteHospital(String id) {
         hospitalRepository.deleteById(id);
+        hospitalDirectory.remove(id);
+        invalidationBus.publish(InvalidationEvent.Entity.HOSPITAL, id);
     }
 }
@@ -8,13 +8,21 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.cluster.SeriesKey;
+import com.kpi.hospital.cluster.SeriesProcessor;
 import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.KpiSeriesColumns;
 import com.kpi.hospital.dto.KpiSubmissionRequest;
+import com.kpi.hospital.invalidation.InvalidationBus;
+import com.kpi.hospital.invalidation.InvalidationEvent;
 import com.kpi.hospital.model.KpiPoint;
 import com.kpi.hospital.model.KpiSeries;
 import com.kpi.hospital.repository.KpiSeriesRepository;
 import com.kpi.hospital.service.KpiService;
+import com.kpi.hospital.tenancy.TenantRouter;
 import com.kpi.hospital.util.DtoMapper;
+import com.kpi.hospital.util.WireFormat;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,10 +31,18 @@ import lombok.RequiredArgsConstructor;
 public class KpiServiceImpl implements KpiService {
 
     private final KpiSeriesRepository kpiSeriesRepository;
+    private final KpiDataVersions kpiDataVersions;
+    private final TenantRouter tenantRouter;
+    private final InvalidationBus invalidationBus;
+    private final SeriesProcessor seriesProcessor;
 
     @Override
     @Transactional
     public KpiResponse submitKpi(KpiSubmissionRequest request, String submittedBy) {
+        return tenantRouter.forHospital(request.getHospitalId(), () -> save(request, submittedBy));
+    }
+
+    private KpiResponse save(KpiSubmissionRequest request, String submittedBy) {
         KpiSeries series = kpiSeriesRepository
                 .findByHospitalIdAndDepartmentAndMetric(request.getHospitalId(), request.getDepartment(),
                         request.getMetric())
@@ -51,13 +67,28 @@ public class KpiServiceImpl implements KpiService {
                 .build();
         series.getHistory().add(point);
         KpiSeries saved = kpiSeriesRepository.save(series);
+        kpiDataVersions.markChanged(saved.getHospitalId());
+        invalidationBus.publish(InvalidationEvent.Entity.KPI, saved.getHospitalId());
+        seriesProcessor.observe(SeriesKey.of(saved), point.getValue().doubleValue(), point.getTimestamp());
         return DtoMapper.toKpiResponse(saved);
     }
 
     @Override
     public List<KpiResponse> getKpiHistoryByHospital(String hospitalId) {
-        return kpiSeriesRepository.findByHospitalId(hospitalId).stream()
+        return tenantRouter.forHospital(hospitalId, () -> kpiSeriesRepository.findByHospitalId(hospitalId)).stream()
                 .map(DtoMapper::toKpiResponse)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<KpiSeriesColumns> getKpiHistoryColumnsByHospital(String hospitalId) {
+        return tenantRouter.forHospital(hospitalId, () -> kpiSeriesRepository.findByHospitalId(hospitalId)).stream()
+                .map(DtoMapper::toKpiSeriesColumns)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getKpiHistoryETag(String hospitalId, WireFormat format) {
+        return kpiDataVersions.tag("kh" + format.tagSuffix(), kpiDataVersions.hospitalVersion(hospitalId));
+    }
 }
@@ -1,5 +1,6 @@
 ﻿package com.kpi.hospital.service.impl;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -8,12 +9,16 @@ import java.util.stream.Collectors;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
 import org.springframework.stereotype.Service;
 
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.coalescing.Coalesced;
 import com.kpi.hospital.dto.LeaderboardEntry;
 import com.kpi.hospital.model.Hospital;
 import com.kpi.hospital.service.LeaderboardService;
+import com.kpi.hospital.tenancy.TenantRouter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,42 +26,64 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LeaderboardServiceImpl implements LeaderboardService {
 
+    static final Aggregation AGGREGATION = Aggregation.newAggregation(
+            Aggregation.unwind("$history"),
+            Aggregation.sort(Sort.by(Sort.Direction.DESC, "history.timestamp")),
+            Aggregation.group("hospitalId", "department", "metric")
+                    .first("history.value").as("latestValue")
+                    .first("hospitalId").as("hospitalId"),
+            Aggregation.group("hospitalId")
+                    .avg(ConvertOperators.ToDouble.toDouble("$latestValue")).as("avgPerformance")
+                    .count().as("kpiCount"),
+            Aggregation.project("avgPerformance", "kpiCount")
+                    .and("_id").as("hospitalId"),
+            Aggregation.sort(Sort.by(Sort.Direction.DESC, "avgPerformance", "kpiCount")));
+
     private final MongoTemplate mongoTemplate;
-    private final com.kpi.hospital.repository.HospitalRepository hospitalRepository;
+    private final HospitalDirectory hospitalDirectory;
+    private final KpiDataVersions kpiDataVersions;
+    private final TenantRouter tenantRouter;
 
     @Override
-    @SuppressWarnings("unchecked")
+    @Coalesced
+    @SuppressWarnings("rawtypes")
     public List<LeaderboardEntry> getLeaderboard() {
-        Aggregation aggregation = Aggregation.newAggregation(
-                Aggregation.unwind("$history"),
-                Aggregation.sort(Sort.by(Sort.Direction.DESC, "history.timestamp")),
-                Aggregation.group("hospitalId", "department", "metric")
-                        .first("history.value").as("latestValue")
-                        .first("hospitalId").as("hospitalId"),
-                Aggregation.group("hospitalId")
-                        .avg("latestValue").as("avgPerformance")
-                        .count().as("kpiCount"),
-                Aggregation.project("avgPerformance", "kpiCount")
-                        .and("_id").as("hospitalId"),
-                Aggregation.sort(Sort.by(Sort.Direction.DESC, "avgPerformance", "kpiCount"))
-        );
-
-        AggregationResults<Map> results = mongoTemplate.aggregate(aggregation, "kpi_series", Map.class);
-        Map<String, Hospital> hospitalMap = hospitalRepository.findAll().stream()
-                .collect(Collectors.toMap(Hospital::getId, h -> h));
+        List<Map> rows = tenantRouter.fanOutAll(
+                () -> mongoTemplate.aggregate(AGGREGATION, "kpi_series", Map.class).getMappedResults());
+        return toEntries(rows, hospitalDirectory);
+    }
+
+    @Override
+    public String getLeaderboardETag() {
+        return kpiDataVersions.tag("lb", kpiDataVersions.globalVersion(),
+                hospitalDirectory.lastModified(), hospitalDirectory.count());
+    }
+
+    @SuppressWarnings("rawtypes")
+    static List<LeaderboardEntry> toEntries(List<Map> rows, HospitalDirectory hospitalDirectory) {
         AtomicInteger rankCounter = new AtomicInteger(1);
-        return results.getMappedResults().stream()
+        return rows.stream()
+                .sorted(Comparator.<Map>comparingDouble(row -> number(row, "avgPerformance"))
+                        .thenComparingDouble(row -> number(row, "kpiCount"))
+                        .reversed())
                 .map(doc -> {
                     String hospitalId = (String) doc.get("hospitalId");
                     double avgPerformance = ((Number) doc.getOrDefault("avgPerformance", 0)).doubleValue();
-                    Hospital hospital = hospitalMap.get(hospitalId);
+                    String hospitalName = hospitalDirectory.findById(hospitalId)
+                            .map(Hospital::getName)
+                            .orElse("Unknown");
                     return LeaderboardEntry.builder()
                             .hospitalId(hospitalId)
-                            .hospitalName(hospital != null ? hospital.getName() : "Unknown")
+                            .hospitalName(hospitalName)
                             .efficiencyScore(Math.round(avgPerformance * 100.0) / 100.0)
                             .rank(rankCounter.getAndIncrement())
                             .build();
                 })
                 .collect(Collectors.toList());
     }
+
+    @SuppressWarnings("rawtypes")
+    private static double number(Map row, String field) {
+        return row.get(field) instanceof Number value ? value.doubleValue() : 0;
+    }
 }
@@ -0,0 +1,102 @@
+﻿package com.kpi.hospital.service.impl;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.dto.AiAnomalyResponse;
+import com.kpi.hospital.dto.AiPredictionResponse;
+import com.kpi.hospital.dto.AiRecommendationResponse;
+import com.kpi.hospital.dto.DashboardSummaryResponse;
+import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.LeaderboardEntry;
+import com.kpi.hospital.mock.ai.AiAnomalyDetector;
+import com.kpi.hospital.mock.ai.AiPredictionEngine;
+import com.kpi.hospital.mock.ai.AiRecommendationEngine;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.repository.ReactiveKpiSeriesRepository;
+import com.kpi.hospital.repository.ReactiveUserRepository;
+import com.kpi.hospital.service.ReactiveReadService;
+import com.kpi.hospital.tenancy.TenantRouter;
+import com.kpi.hospital.util.DtoMapper;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ReactiveKpiSeriesRepository kpiSeriesRepository;
+    private final ReactiveUserRepository userRepository;
+    private final HospitalDirectory hospitalDirectory;
+    private final AiPredictionEngine aiPredictionEngine;
+    private final AiAnomalyDetector aiAnomalyDetector;
+    private final AiRecommendationEngine aiRecommendationEngine;
+    private final TenantRouter tenantRouter;
+
+    @Override
+    public Mono<List<KpiResponse>> getKpiHistoryByHospital(String hospitalId) {
+        return tenantRouter.forHospital(hospitalId, kpiSeriesRepository.findByHospitalId(hospitalId))
+                .map(DtoMapper::toKpiResponse)
+                .collectList();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<List<LeaderboardEntry>> getLeaderboard() {
+        return tenantRouter.fanOut(
+                reactiveMongoTemplate.aggregate(LeaderboardServiceImpl.AGGREGATION, "kpi_series", Map.class))
+                .collectList()
+                .map(rows -> LeaderboardServiceImpl.toEntries(rows, hospitalDirectory));
+    }
+
+    @Override
+    public Mono<List<AiPredictionResponse>> getPredictions(String hospitalId) {
+        return scoring(hospitalId).map(aiPredictionEngine::generatePredictions);
+    }
+
+    @Override
+    public Mono<List<AiAnomalyResponse>> getAnomalies(String hospitalId) {
+        return scoring(hospitalId).map(aiAnomalyDetector::detectAnomalies);
+    }
+
+    @Override
+    public Mono<List<AiRecommendationResponse>> getRecommendations(String hospitalId) {
+        return scoring(hospitalId).map(aiRecommendationEngine::generateRecommendations);
+    }
+
+    @Override
+    public Mono<DashboardSummaryResponse> getSummaryForUser(String userEmail) {
+        return userRepository.findByEmail(userEmail)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("User not found")))
+                .flatMap(user -> {
+                    String hospitalId = DashboardServiceImpl.hospitalScope(user);
+                    Mono<Long> monitoredKpis = hospitalId != null
+                            ? tenantRouter.forHospital(hospitalId, kpiSeriesRepository.countByHospitalId(hospitalId))
+                            : tenantRouter.fanOut(kpiSeriesRepository.count().flux()).reduce(0L, Long::sum);
+                    return Mono.zip(monitoredKpis, scoring(hospitalId))
+                            .map(tuple -> DashboardServiceImpl.summarize(hospitalId, tuple.getT1(),
+                                    aiAnomalyDetector.detectAnomalies(tuple.getT2()),
+                                    aiRecommendationEngine.generateRecommendations(tuple.getT2()),
+                                    hospitalDirectory));
+                });
+    }
+
+    private Mono<List<KpiSeries>> scoring(String hospitalId) {
+        // The AI engines are CPU-bound; keep them off the driver's event loop.
+        return series(hospitalId).publishOn(Schedulers.parallel());
+    }
+
+    private Mono<List<KpiSeries>> series(String hospitalId) {
+        return (hospitalId != null
+                ? tenantRouter.forHospital(hospitalId, kpiSeriesRepository.findByHospitalId(hospitalId))
+                : tenantRouter.fanOut(kpiSeriesRepository.findAll()))
+                .collectList();
+    }
+}
@@ -1,24 +1,34 @@
 ﻿package com.kpi.hospital.service.impl;
 
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.kpi.hospital.dto.CursorPage;
 import com.kpi.hospital.dto.UpdateUserRequest;
 import com.kpi.hospital.dto.UserDto;
-import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.dto.UserSearchRequest;
+import com.kpi.hospital.invalidation.InvalidationBus;
+import com.kpi.hospital.invalidation.InvalidationEvent;
 import com.kpi.hospital.model.Role;
 import com.kpi.hospital.model.RoleType;
 import com.kpi.hospital.model.User;
 import com.kpi.hospital.repository.HospitalRepository;
 import com.kpi.hospital.repository.RoleRepository;
 import com.kpi.hospital.repository.UserRepository;
+import com.kpi.hospital.security.UserSecurityVersions;
 import com.kpi.hospital.service.UserService;
 import com.kpi.hospital.util.DtoMapper;
+import com.kpi.hospital.util.KeysetCursor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -26,15 +36,52 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final Map<String, Function<User, String>> SORT_FIELDS = Map.of(
+            "email", User::getEmail,
+            "fullName", User::getFullName);
+
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "email", "fullName", "title", "hospitalId", "roles", "active");
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final HospitalRepository hospitalRepository;
+    private final UserSecurityVersions userSecurityVersions;
+    private final MongoTemplate mongoTemplate;
+    private final InvalidationBus invalidationBus;
 
     @Override
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(DtoMapper::toUserDto)
-                .collect(Collectors.toList());
+    public CursorPage<UserDto> getUsers(UserSearchRequest request) {
+        Function<User, String> sortValue = SORT_FIELDS.get(request.getSort());
+        if (sortValue == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + request.getSort());
+        }
+        Sort.Direction direction = Sort.Direction.fromString(request.getDirection());
+        Query query = new Query();
+        if (request.getRole() != null) {
+            query.addCriteria(Criteria.where("roles").is(request.getRole()));
+        }
+        if (request.getHospitalId() != null) {
+            query.addCriteria(Criteria.where("hospitalId").is(request.getHospitalId()));
+        }
+        if (request.getActive() != null) {
+            query.addCriteria(Criteria.where("active").is(request.getActive()));
+        }
+        if (request.getCursor() != null) {
+            query.addCriteria(KeysetCursor.decode(request.getCursor()).after(request.getSort(), direction));
+        }
+        if (request.getFields() != null && !request.getFields().isEmpty()) {
+            for (String field : request.getFields()) {
+                if (!PROJECTABLE_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Unsupported field: " + field);
+                }
+                query.fields().include(field);
+            }
+            query.fields().include(request.getSort(), "active");
+        }
+        query.with(Sort.by(direction, request.getSort(), "_id")).limit(request.getLimit() + 1);
+        return KeysetCursor.toPage(mongoTemplate.find(query, User.class), request.getLimit(), User::getId, sortValue,
+                DtoMapper::toUserDto);
     }
 
     @Override
@@ -50,26 +97,35 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         if (request.getRoles() != null) {
-            Set<Role> roles = new HashSet<>();
+            Set<RoleType> known = roleRepository.findByNameIn(request.getRoles()).stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toSet());
             for (RoleType roleType : request.getRoles()) {
-                Role role = roleRepository.findByName(roleType)
-                        .orElseThrow(() -> new IllegalArgumentException("Role not found: " + roleType));
-                roles.add(role);
+                if (!known.contains(roleType)) {
+                    throw new IllegalArgumentException("Role not found: " + roleType);
+                }
             }
-            user.setRoles(roles);
+            user.setRoles(new HashSet<>(request.getRoles()));
         }
         if (request.getActive() != null) {
             user.setActive(request.getActive());
         }
         if (request.getHospitalId() != null) {
-            Hospital hospital = hospitalRepository.findById(request.getHospitalId())
-                    .orElseThrow(() -> new IllegalArgumentException("Hospital not found"));
-            user.setHospital(hospital);
+            if (!hospitalRepository.existsById(request.getHospitalId())) {
+                throw new IllegalArgumentException("Hospital not found");
+            }
+            user.setHospitalId(request.getHospitalId());
         }
         if (request.getTitle() != null) {
             user.setTitle(request.getTitle());
         }
-        return DtoMapper.toUserDto(userRepository.save(user));
+        if (request.getRoles() != null || request.getActive() != null || request.getHospitalId() != null) {
+            user.setSecurityVersion(user.getSecurityVersion() + 1);
+        }
+        User saved = userRepository.save(user);
+        userSecurityVersions.update(saved.getEmail(), saved.getSecurityVersion());
+        invalidationBus.publish(InvalidationEvent.Entity.USER, saved.getEmail());
+        return DtoMapper.toUserDto(saved);
     }
 
     @Override
@@ -78,6 +134,9 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setActive(false);
-        userRepository.save(user);
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        User saved = userRepository.save(user);
+        userSecurityVersions.update(saved.getEmail(), saved.getSecurityVersion());
+        invalidationBus.publish(InvalidationEvent.Entity.USER, saved.getEmail());
     }
 }
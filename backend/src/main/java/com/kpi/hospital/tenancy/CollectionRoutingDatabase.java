@@ -0,0 +1,69 @@
+﻿package com.kpi.hospital.tenancy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+final class CollectionRoutingDatabase implements InvocationHandler {
+
+    private static final Set<String> COLLECTION_METHODS = Set.of("getCollection", "createCollection");
+
+    private final Class<?> type;
+    private final Object shared;
+    private final Object tenant;
+    private final Set<String> collections;
+
+    private CollectionRoutingDatabase(Class<?> type, Object shared, Object tenant, Set<String> collections) {
+        this.type = type;
+        this.shared = shared;
+        this.tenant = tenant;
+        this.collections = collections;
+    }
+
+    static <T> T wrap(Class<T> type, T shared, T tenant, Set<String> collections) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new CollectionRoutingDatabase(type, shared, tenant, collections)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "Routing" + call(shared, method, args);
+            };
+        }
+        if (method.getReturnType() == type) {
+            // withCodecRegistry, withReadPreference and friends: derive both sides and keep routing.
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new CollectionRoutingDatabase(type, call(shared, method, args), call(tenant, method, args),
+                            collections));
+        }
+        if (COLLECTION_METHODS.contains(method.getName()) && collections.contains(collectionName(args))) {
+            return call(tenant, method, args);
+        }
+        return call(shared, method, args);
+    }
+
+    private static String collectionName(Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof String name) {
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+﻿package com.kpi.hospital.tenancy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+@Configuration
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    @Bean
+    public TenantDatabases tenantDatabases(TenancyProperties properties, MongoDatabaseFactory mongoDatabaseFactory,
+            MongoClient mongoClient, com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient,
+            MongoClientSettings settings, ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers) {
+        return new TenantDatabases(properties, mongoDatabaseFactory.getMongoDatabase().getName(), mongoClient,
+                reactiveMongoClient, uri -> MongoClients.create(settings(settings, customizers, uri)),
+                uri -> com.mongodb.reactivestreams.client.MongoClients.create(settings(settings, customizers, uri)));
+    }
+
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+            TenantDatabases tenantDatabases) {
+        return new MongoTemplate(new TenantRoutingMongoDatabaseFactory(mongoDatabaseFactory, tenantDatabases),
+                mongoConverter);
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(ReactiveMongoDatabaseFactory reactiveMongoDatabaseFactory,
+            MongoConverter mongoConverter, TenantDatabases tenantDatabases) {
+        return new ReactiveMongoTemplate(
+                new TenantRoutingReactiveMongoDatabaseFactory(reactiveMongoDatabaseFactory, tenantDatabases),
+                mongoConverter);
+    }
+
+    private static MongoClientSettings settings(MongoClientSettings base,
+            ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers, ConnectionString uri) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder(base);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        // The standard customizer applies the shared connection string; the tenant's wins.
+        return builder.applyConnectionString(uri).build();
+    }
+}
@@ -0,0 +1,38 @@
+﻿package com.kpi.hospital.tenancy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "tenancy")
+public class TenancyProperties {
+
+    @NotEmpty
+    private Set<String> collections = Set.of("kpi_series");
+
+    @Positive
+    private int fanOutThreads = 8;
+
+    @Positive
+    private long fanOutTimeoutMs = 30000;
+
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    @Data
+    public static class Tenant {
+
+        private String database;
+
+        private String uri;
+    }
+}
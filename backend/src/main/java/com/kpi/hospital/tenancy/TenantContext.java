@@ -0,0 +1,44 @@
+﻿package com.kpi.hospital.tenancy;
+
+import java.util.function.Supplier;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+
+    private static final String CONTEXT_KEY = TenantContext.class.getName();
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT;
+    }
+
+    public static <T> T call(String tenantId, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static Context reactive(String tenantId) {
+        return Context.of(CONTEXT_KEY, tenantId);
+    }
+
+    static String current(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, DEFAULT);
+    }
+}
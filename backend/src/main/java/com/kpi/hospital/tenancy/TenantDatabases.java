@@ -0,0 +1,90 @@
+﻿package com.kpi.hospital.tenancy;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+
+public class TenantDatabases implements DisposableBean {
+
+    private final Set<String> collections;
+    private final Map<String, MongoDatabase> databases = new HashMap<>();
+    private final Map<String, com.mongodb.reactivestreams.client.MongoDatabase> reactiveDatabases = new HashMap<>();
+    private final List<MongoClient> dedicatedClients = new ArrayList<>();
+    private final List<Closeable> tenantClients = new ArrayList<>();
+
+    public TenantDatabases(TenancyProperties properties, String sharedDatabase, MongoClient sharedClient,
+            com.mongodb.reactivestreams.client.MongoClient sharedReactiveClient,
+            Function<ConnectionString, MongoClient> clientFactory,
+            Function<ConnectionString, com.mongodb.reactivestreams.client.MongoClient> reactiveClientFactory) {
+        this.collections = Set.copyOf(properties.getCollections());
+        properties.getTenants().forEach((tenantId, tenant) -> {
+            String database = databaseName(tenantId, tenant, sharedDatabase);
+            MongoClient client = sharedClient;
+            com.mongodb.reactivestreams.client.MongoClient reactiveClient = sharedReactiveClient;
+            if (tenant.getUri() != null) {
+                client = clientFactory.apply(new ConnectionString(tenant.getUri()));
+                reactiveClient = reactiveClientFactory.apply(new ConnectionString(tenant.getUri()));
+                dedicatedClients.add(client);
+                tenantClients.add(client);
+                tenantClients.add(reactiveClient::close);
+            }
+            databases.put(tenantId, client.getDatabase(database));
+            reactiveDatabases.put(tenantId, reactiveClient.getDatabase(database));
+        });
+    }
+
+    public boolean isEmpty() {
+        return databases.isEmpty();
+    }
+
+    public MongoDatabase route(MongoDatabase shared, String tenantId) {
+        MongoDatabase tenant = databases.get(tenantId);
+        return tenant == null ? shared
+                : CollectionRoutingDatabase.wrap(MongoDatabase.class, shared, tenant, collections);
+    }
+
+    public com.mongodb.reactivestreams.client.MongoDatabase route(
+            com.mongodb.reactivestreams.client.MongoDatabase shared, String tenantId) {
+        com.mongodb.reactivestreams.client.MongoDatabase tenant = reactiveDatabases.get(tenantId);
+        return tenant == null ? shared : CollectionRoutingDatabase.wrap(
+                com.mongodb.reactivestreams.client.MongoDatabase.class, shared, tenant, collections);
+    }
+
+    public Optional<MongoDatabase> database(ServerAddress server, String name) {
+        return dedicatedClients.stream()
+                .filter(client -> client.getClusterDescription().getServerDescriptions().stream()
+                        .anyMatch(description -> description.getAddress().equals(server)))
+                .findFirst()
+                .map(client -> client.getDatabase(name));
+    }
+
+    static String databaseName(String tenantId, TenancyProperties.Tenant tenant, String sharedDatabase) {
+        if (StringUtils.hasText(tenant.getDatabase())) {
+            return tenant.getDatabase();
+        }
+        if (tenant.getUri() != null && new ConnectionString(tenant.getUri()).getDatabase() != null) {
+            return new ConnectionString(tenant.getUri()).getDatabase();
+        }
+        return sharedDatabase + "_" + tenantId;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Closeable client : tenantClients) {
+            client.close();
+        }
+    }
+}
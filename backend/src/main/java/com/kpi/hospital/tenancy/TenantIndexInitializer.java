@@ -0,0 +1,52 @@
+﻿package com.kpi.hospital.tenancy;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.config.MongoIndexInitializer;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class TenantIndexInitializer implements SmartInitializingSingleton {
+
+    private final TenancyProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final boolean background;
+
+    public TenantIndexInitializer(TenancyProperties properties, MongoTemplate mongoTemplate,
+            MongoMappingContext mappingContext,
+            @Value("${mongo-indexes.background-creation:false}") boolean background) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.background = background;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.getTenants().isEmpty()) {
+            return;
+        }
+        if (!background) {
+            ensureIndexes();
+            return;
+        }
+        Thread thread = new Thread(this::ensureIndexes, "tenant-index-initializer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void ensureIndexes() {
+        for (String tenantId : properties.getTenants().keySet()) {
+            int ensured = TenantContext.call(tenantId, () -> MongoIndexInitializer.ensureIndexes(mongoTemplate,
+                    mappingContext, entity -> properties.getCollections().contains(entity.getCollection())));
+            log.info("Ensured {} indexes for tenant {}", ensured, tenantId);
+        }
+    }
+}
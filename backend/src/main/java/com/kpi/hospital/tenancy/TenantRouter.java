@@ -0,0 +1,175 @@
+﻿package com.kpi.hospital.tenancy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.repository.HospitalRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Component
+public class TenantRouter implements DisposableBean {
+
+    private final TenancyProperties properties;
+    private final HospitalDirectory hospitalDirectory;
+    private final HospitalRepository hospitalRepository;
+    private final MeterRegistry meterRegistry;
+    private final List<String> tenantIds;
+    private final ThreadPoolExecutor executor;
+
+    public TenantRouter(TenancyProperties properties, HospitalDirectory hospitalDirectory,
+            HospitalRepository hospitalRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hospitalDirectory = hospitalDirectory;
+        this.hospitalRepository = hospitalRepository;
+        this.meterRegistry = meterRegistry;
+        List<String> ids = new ArrayList<>();
+        ids.add(TenantContext.DEFAULT);
+        ids.addAll(properties.getTenants().keySet());
+        this.tenantIds = List.copyOf(ids);
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Under pressure the caller runs a tenant's part itself, so fan-outs degrade to sequential reads.
+        this.executor = new ThreadPoolExecutor(properties.getFanOutThreads(), properties.getFanOutThreads(), 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getFanOutThreads() * 16), runnable -> {
+                    Thread thread = new Thread(runnable, "tenant-fan-out-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(executor, "tenant-fan-out", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public List<String> tenantIds() {
+        return tenantIds;
+    }
+
+    public String tenantOf(String hospitalId) {
+        if (hospitalId == null) {
+            return TenantContext.DEFAULT;
+        }
+        return tenantOf(hospitalId, hospitalDirectory.findById(hospitalId)
+                .or(() -> hospitalRepository.findById(hospitalId)));
+    }
+
+    private String tenantOf(String hospitalId, Optional<Hospital> hospital) {
+        String tenantId = hospital.map(Hospital::getTenantId).orElse(null);
+        if (tenantId == null) {
+            return TenantContext.DEFAULT;
+        }
+        if (!properties.getTenants().containsKey(tenantId)) {
+            throw new IllegalArgumentException("Hospital " + hospitalId + " belongs to unconfigured tenant " + tenantId);
+        }
+        return tenantId;
+    }
+
+    private Mono<String> reactiveTenantOf(String hospitalId) {
+        return Mono.defer(() -> {
+            if (hospitalId == null) {
+                return Mono.just(TenantContext.DEFAULT);
+            }
+            Optional<Hospital> cached = hospitalDirectory.findById(hospitalId);
+            if (cached.isPresent()) {
+                return Mono.fromCallable(() -> tenantOf(hospitalId, cached));
+            }
+            return Mono.fromCallable(() -> tenantOf(hospitalId, hospitalRepository.findById(hospitalId)))
+                    .subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    public boolean isKnown(String tenantId) {
+        return tenantId == null || properties.getTenants().containsKey(tenantId);
+    }
+
+    public void requireKnown(String tenantId) {
+        if (!isKnown(tenantId)) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantId);
+        }
+    }
+
+    public <T> T forHospital(String hospitalId, Supplier<T> action) {
+        return TenantContext.call(tenantOf(hospitalId), action);
+    }
+
+    public <T> Mono<T> forHospital(String hospitalId, Mono<T> action) {
+        return reactiveTenantOf(hospitalId)
+                .flatMap(tenantId -> action.contextWrite(TenantContext.reactive(tenantId)));
+    }
+
+    public <T> Flux<T> forHospital(String hospitalId, Flux<T> action) {
+        return reactiveTenantOf(hospitalId)
+                .flatMapMany(tenantId -> action.contextWrite(TenantContext.reactive(tenantId)));
+    }
+
+    public <T> List<T> fanOut(Supplier<T> action) {
+        if (tenantIds.size() == 1) {
+            return List.of(action.get());
+        }
+        List<CompletableFuture<T>> legs = tenantIds.stream()
+                .map(tenantId -> CompletableFuture.supplyAsync(() -> timer(tenantId)
+                        .record(() -> TenantContext.call(tenantId, action)), executor))
+                .toList();
+        try {
+            CompletableFuture.allOf(legs.toArray(CompletableFuture[]::new))
+                    .get(properties.getFanOutTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Cross-tenant read failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            legs.forEach(leg -> leg.cancel(true));
+            throw new IllegalStateException("Cross-tenant read timed out", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during a cross-tenant read", ex);
+        }
+        return legs.stream().map(CompletableFuture::join).toList();
+    }
+
+    public <T> List<T> fanOutAll(Supplier<? extends Collection<T>> action) {
+        List<T> all = new ArrayList<>();
+        fanOut(action).forEach(all::addAll);
+        return all;
+    }
+
+    public <T> Flux<T> fanOut(Flux<T> action) {
+        if (tenantIds.size() == 1) {
+            return action;
+        }
+        return Flux.merge(tenantIds.stream()
+                .map(tenantId -> action.contextWrite(TenantContext.reactive(tenantId)))
+                .toList());
+    }
+
+    private Timer timer(String tenantId) {
+        return Timer.builder("kpi.tenancy.fan.out")
+                .description("Time one tenant took to answer its part of a cross-tenant read")
+                .tag("tenant", tenantId)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,49 @@
+﻿package com.kpi.hospital.tenancy;
+
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+
+public class TenantRoutingMongoDatabaseFactory implements MongoDatabaseFactory {
+
+    private final MongoDatabaseFactory delegate;
+    private final TenantDatabases tenantDatabases;
+
+    public TenantRoutingMongoDatabaseFactory(MongoDatabaseFactory delegate, TenantDatabases tenantDatabases) {
+        this.delegate = delegate;
+        this.tenantDatabases = tenantDatabases;
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() {
+        return tenantDatabases.route(delegate.getMongoDatabase(), TenantContext.current());
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(String dbName) {
+        return delegate.getMongoDatabase(dbName);
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public ClientSession getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(ClientSession session) {
+        return new TenantRoutingMongoDatabaseFactory(delegate.withSession(session), tenantDatabases);
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+}
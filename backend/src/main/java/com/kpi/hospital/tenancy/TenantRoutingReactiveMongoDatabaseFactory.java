@@ -0,0 +1,62 @@
+﻿package com.kpi.hospital.tenancy;
+
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+import reactor.core.publisher.Mono;
+
+public class TenantRoutingReactiveMongoDatabaseFactory implements ReactiveMongoDatabaseFactory {
+
+    private final ReactiveMongoDatabaseFactory delegate;
+    private final TenantDatabases tenantDatabases;
+
+    public TenantRoutingReactiveMongoDatabaseFactory(ReactiveMongoDatabaseFactory delegate,
+            TenantDatabases tenantDatabases) {
+        this.delegate = delegate;
+        this.tenantDatabases = tenantDatabases;
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase() {
+        if (tenantDatabases.isEmpty()) {
+            return delegate.getMongoDatabase();
+        }
+        return Mono.deferContextual(context -> delegate.getMongoDatabase()
+                .map(shared -> tenantDatabases.route(shared, TenantContext.current(context))));
+    }
+
+    @Override
+    public Mono<MongoDatabase> getMongoDatabase(String dbName) {
+        return delegate.getMongoDatabase(dbName);
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    public Mono<ClientSession> getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public ReactiveMongoDatabaseFactory withSession(ClientSession session) {
+        return new TenantRoutingReactiveMongoDatabaseFactory(delegate.withSession(session), tenantDatabases);
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+}
@@ -1,35 +1,53 @@
 ﻿package com.kpi.hospital.util;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.kpi.hospital.cluster.HashRing;
+import com.kpi.hospital.dto.ClusterJobResponse;
+import com.kpi.hospital.dto.ClusterStatusResponse;
 import com.kpi.hospital.dto.HospitalResponse;
+import com.kpi.hospital.dto.JobExecutionResponse;
 import com.kpi.hospital.dto.KpiResponse;
+import com.kpi.hospital.dto.KpiSeriesColumns;
+import com.kpi.hospital.dto.PeerBenchmarkResponse;
+import com.kpi.hospital.dto.SlowQueryResponse;
 import com.kpi.hospital.dto.UserDto;
+import com.kpi.hospital.model.ClusterMember;
 import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.JobExecution;
+import com.kpi.hospital.model.JobLease;
 import com.kpi.hospital.model.KpiPoint;
 import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.SlowQuery;
 import com.kpi.hospital.model.User;
+import com.kpi.hospital.peer.TDigest;
 
 public final class DtoMapper {
 
+    private static final int[] BENCHMARK_PERCENTILES = {5, 10, 25, 50, 75, 90, 95};
+
     private DtoMapper() {
     }
 
     public static UserDto toUserDto(User user) {
         Set<String> roles = user.getRoles() == null ? Set.of()
                 : user.getRoles().stream()
-                        .map(role -> role.getName().name())
+                        .map(RoleType::name)
                         .collect(Collectors.toSet());
-        String hospitalId = user.getHospital() != null ? user.getHospital().getId() : null;
         return UserDto.builder()
                 .id(user.getId())
                 .email(user.getEmail())
                 .fullName(user.getFullName())
                 .title(user.getTitle())
-                .hospitalId(hospitalId)
+                .hospitalId(user.getHospitalId())
                 .roles(roles)
                 .active(user.isActive())
                 .build();
@@ -47,6 +65,7 @@ public final class DtoMapper {
                 .directorEmail(hospital.getDirectorEmail())
                 .federatedState(hospital.getFederatedState())
                 .metadata(hospital.getMetadata())
+                .tenantId(hospital.getTenantId())
                 .build();
     }
 
@@ -69,6 +88,118 @@ public final class DtoMapper {
                 .build();
     }
 
+    public static KpiSeriesColumns toKpiSeriesColumns(KpiSeries series) {
+        List<KpiPoint> rawHistory = series.getHistory() == null ? Collections.emptyList() : series.getHistory();
+        long[] timestamps = new long[rawHistory.size()];
+        double[] values = new double[rawHistory.size()];
+        for (int i = 0; i < rawHistory.size(); i++) {
+            KpiPoint point = rawHistory.get(i);
+            timestamps[i] = point.getTimestamp() == null ? 0L : point.getTimestamp().toEpochMilli();
+            values[i] = point.getValue() == null ? Double.NaN : point.getValue().doubleValue();
+        }
+        return KpiSeriesColumns.builder()
+                .id(series.getId())
+                .hospitalId(series.getHospitalId())
+                .department(series.getDepartment())
+                .metric(series.getMetric())
+                .unit(series.getUnit())
+                .target(series.getTarget())
+                .timestamps(timestamps)
+                .values(values)
+                .build();
+    }
+
+    public static SlowQueryResponse toSlowQueryResponse(SlowQuery slowQuery) {
+        return SlowQueryResponse.builder()
+                .id(slowQuery.getId())
+                .recordedAt(slowQuery.getRecordedAt())
+                .collection(slowQuery.getCollection())
+                .command(slowQuery.getCommand())
+                .durationMs(slowQuery.getDurationMs())
+                .failed(slowQuery.isFailed())
+                .caller(slowQuery.getCaller())
+                .repositoryMethod(slowQuery.getRepositoryMethod())
+                .shape(slowQuery.getShape())
+                .planSummary(slowQuery.getPlanSummary())
+                .indexes(slowQuery.getIndexes())
+                .collectionScan(slowQuery.getCollectionScan())
+                .explainError(slowQuery.getExplainError())
+                .build();
+    }
+
+    public static ClusterJobResponse toClusterJobResponse(String name, Duration interval, JobLease lease,
+            Instant now) {
+        ClusterJobResponse.ClusterJobResponseBuilder response = ClusterJobResponse.builder()
+                .name(name)
+                .intervalMs(interval.toMillis());
+        if (lease == null) {
+            return response.build();
+        }
+        long lagMs = lease.getNextRunAt() != null && lease.getNextRunAt().isBefore(now)
+                ? Duration.between(lease.getNextRunAt(), now).toMillis()
+                : 0;
+        return response
+                .owner(lease.getOwner())
+                .fencingToken(lease.getFencingToken())
+                .leaseExpiresAt(lease.getExpiresAt())
+                .lastRunAt(lease.getLastRunAt())
+                .lastStatus(lease.getLastStatus())
+                .nextRunAt(lease.getNextRunAt())
+                .lagMs(lagMs)
+                .build();
+    }
+
+    public static PeerBenchmarkResponse toPeerBenchmarkResponse(TDigest sketch, String metric, String department,
+            String hospitalId, KpiPoint point) {
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        for (int percentile : BENCHMARK_PERCENTILES) {
+            quantiles.put("p" + percentile, sketch.quantile(percentile / 100.0));
+        }
+        PeerBenchmarkResponse.PeerBenchmarkResponseBuilder response = PeerBenchmarkResponse.builder()
+                .metric(metric)
+                .department(department)
+                .observations(sketch.count())
+                .min(sketch.min())
+                .max(sketch.max())
+                .quantiles(quantiles)
+                .hospitalId(hospitalId);
+        if (point != null) {
+            response.value(point.getValue())
+                    .valueTimestamp(point.getTimestamp())
+                    .percentileRank(Math.round(sketch.cdf(point.getValue().doubleValue()) * 1000) / 10.0);
+        }
+        return response.build();
+    }
+
+    public static ClusterStatusResponse.ClusterMemberStatus toClusterMemberStatus(ClusterMember member,
+            HashRing ring) {
+        boolean onRing = ring.members().contains(member.getNodeId());
+        return ClusterStatusResponse.ClusterMemberStatus.builder()
+                .nodeId(member.getNodeId())
+                .host(member.getHost())
+                .startedAt(member.getStartedAt())
+                .heartbeatAt(member.getHeartbeatAt())
+                .onRing(onRing)
+                .share(onRing ? ring.share(member.getNodeId()) : 0)
+                .build();
+    }
+
+    public static JobExecutionResponse toJobExecutionResponse(JobExecution execution) {
+        return JobExecutionResponse.builder()
+                .id(execution.getId())
+                .job(execution.getJob())
+                .owner(execution.getOwner())
+                .fencingToken(execution.getFencingToken())
+                .scheduledAt(execution.getScheduledAt())
+                .startedAt(execution.getStartedAt())
+                .finishedAt(execution.getFinishedAt())
+                .durationMs(execution.getDurationMs())
+                .lagMs(execution.getLagMs())
+                .status(execution.getStatus())
+                .error(execution.getError())
+                .build();
+    }
+
     private static KpiResponse.KpiHistoryPoint toHistoryPoint(KpiPoint point) {
         return KpiResponse.KpiHistoryPoint.builder()
                 .timestamp(point.getTimestamp())
@@ -0,0 +1,69 @@
+﻿package com.kpi.hospital.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.kpi.hospital.dto.CursorPage;
+
+public final class KeysetCursor {
+
+    private static final String ID_FIELD = "_id";
+
+    private final String id;
+    private final String value;
+
+    private KeysetCursor(String id, String value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    public static <E, D> CursorPage<D> toPage(List<E> rows, int limit, Function<E, String> id,
+            Function<E, String> sortValue, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        E last = hasMore ? pageRows.get(pageRows.size() - 1) : null;
+        return CursorPage.<D>builder()
+                .items(pageRows.stream().map(mapper).toList())
+                .nextCursor(last == null ? null : encode(id.apply(last), sortValue.apply(last)))
+                .build();
+    }
+
+    public static String encode(String id, String value) {
+        String raw = value == null ? id : id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int separator = raw.indexOf(':');
+        return separator < 0 ? new KeysetCursor(raw, null)
+                : new KeysetCursor(raw.substring(0, separator), raw.substring(separator + 1));
+    }
+
+    public Criteria after(String field, Sort.Direction direction) {
+        Object idValue = ObjectId.isValid(id) ? new ObjectId(id) : id;
+        boolean ascending = direction.isAscending();
+        Criteria idAfter = ascending ? Criteria.where(ID_FIELD).gt(idValue) : Criteria.where(ID_FIELD).lt(idValue);
+        if (ID_FIELD.equals(field)) {
+            return idAfter;
+        }
+        Criteria tie = new Criteria().andOperator(Criteria.where(field).is(value), idAfter);
+        if (value == null) {
+            return ascending ? new Criteria().orOperator(tie, Criteria.where(field).ne(null)) : tie;
+        }
+        Criteria beyond = ascending ? Criteria.where(field).gt(value) : Criteria.where(field).lt(value);
+        return ascending ? new Criteria().orOperator(beyond, tie)
+                : new Criteria().orOperator(beyond, tie, Criteria.where(field).is(null));
+    }
+}
@@ -0,0 +1,60 @@
+﻿package com.kpi.hospital.util;
+
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
+
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    COLUMNAR_JSON(MediaType.parseMediaType("application/vnd.kpi.columnar+json"), "c"),
+    CBOR(MediaType.APPLICATION_CBOR, "cb"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "cs");
+
+    private final MediaType mediaType;
+    private final String tagSuffix;
+
+    WireFormat(MediaType mediaType, String tagSuffix) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public boolean isColumnar() {
+        return this != JSON;
+    }
+
+    public String tagSuffix() {
+        return tagSuffix;
+    }
+
+    public static WireFormat negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException ex) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType candidate : accepted) {
+            if (candidate.isWildcardType() || candidate.isWildcardSubtype() || candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (WireFormat format : values()) {
+                if (format.mediaType.equalsTypeAndSubtype(candidate)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,32 @@
+﻿package com.kpi.hospital.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import lombok.Data;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    private boolean enabled = true;
+
+    @PositiveOrZero
+    private int iterations = 1000;
+
+    @PositiveOrZero
+    private int queryIterations = 20;
+
+    @Positive
+    private int series = 12;
+
+    @Positive
+    private int points = 60;
+
+    @Positive
+    private long maxDurationMs = 15_000;
+}
@@ -0,0 +1,167 @@
+﻿package com.kpi.hospital.warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.mock.ai.AiAnomalyDetector;
+import com.kpi.hospital.mock.ai.AiPredictionEngine;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.security.AuthenticatedUser;
+import com.kpi.hospital.security.JwtProperties;
+import com.kpi.hospital.security.JwtTokenService;
+import com.kpi.hospital.service.LeaderboardService;
+import com.kpi.hospital.tenancy.TenantRouter;
+import com.kpi.hospital.util.DtoMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Instant SYNTHETIC_START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final WarmupProperties properties;
+    private final HospitalDirectory hospitalDirectory;
+    private final KpiDataVersions kpiDataVersions;
+    private final MongoTemplate mongoTemplate;
+    private final JwtTokenService jwtTokenService;
+    private final JwtProperties jwtProperties;
+    private final AiAnomalyDetector aiAnomalyDetector;
+    private final AiPredictionEngine aiPredictionEngine;
+    private final LeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TenantRouter tenantRouter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(properties.getMaxDurationMs());
+        List<KpiSeries> series = syntheticSeries(properties.getSeries(), properties.getPoints());
+        Authentication authentication = syntheticManager();
+
+        Map<String, Long> phases = new LinkedHashMap<>();
+        phase(phases, "metadata", 1, deadline, this::primeMetadata);
+        phase(phases, "jwt", properties.getIterations(), deadline, () -> parse(authentication));
+        phase(phases, "mapping", properties.getIterations(), deadline, () -> map(series));
+        phase(phases, "anomaly-scoring", properties.getIterations(), deadline, () -> {
+            aiAnomalyDetector.detectAnomalies(series);
+            aiPredictionEngine.generatePredictions(series);
+        });
+        phase(phases, "leaderboard", properties.getQueryIterations(), deadline,
+                () -> serialize(leaderboardService.getLeaderboard()));
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Warmup finished in {} ms {}{}", elapsedMs, phases,
+                System.nanoTime() > deadline ? " (cut short at warmup.max-duration-ms)" : "");
+    }
+
+    private void phase(Map<String, Long> phases, String name, int iterations, long deadline, Runnable call) {
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                call.run();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Warmup phase {} failed: {}", name, ex.getMessage());
+        }
+        long elapsed = System.nanoTime() - started;
+        Timer.builder("kpi.warmup")
+                .description("Time spent warming up a hot path before the instance reports ready")
+                .tag("phase", name)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        phases.put(name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void primeMetadata() {
+        hospitalDirectory.refresh();
+        kpiDataVersions.refresh();
+        Query query = new Query().limit(1);
+        tenantRouter.fanOutAll(() -> mongoTemplate.find(query, KpiSeries.class));
+        log.info("Primed {} hospitals at data version {}", hospitalDirectory.count(),
+                kpiDataVersions.globalVersion());
+    }
+
+    private void parse(Authentication authentication) {
+        String token = jwtTokenService.generateToken(authentication);
+        if (jwtProperties.isStatelessAuthentication()) {
+            jwtTokenService.parseToken(token);
+        } else {
+            jwtTokenService.parseClaims(token);
+        }
+    }
+
+    private void map(List<KpiSeries> series) {
+        serialize(series.stream().map(DtoMapper::toKpiResponse).toList());
+        serialize(series.stream().map(DtoMapper::toKpiSeriesColumns).toList());
+    }
+
+    private void serialize(Object value) {
+        try {
+            objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Authentication syntheticManager() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_MANAGER"));
+        AuthenticatedUser user = new AuthenticatedUser("warmup", "warmup@hospital-kpi.ai", "", "warmup", 0L,
+                true, authorities);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+
+    private static List<KpiSeries> syntheticSeries(int count, int points) {
+        List<KpiSeries> result = new ArrayList<>(count);
+        for (int s = 0; s < count; s++) {
+            List<KpiPoint> history = new ArrayList<>(points);
+            for (int p = 0; p < points; p++) {
+                BigDecimal value = p == points - 1
+                        ? BigDecimal.valueOf(11200 + s, 2)
+                        : BigDecimal.valueOf(6000 + (s * 37 + p * 13) % 4000, 2);
+                history.add(KpiPoint.builder()
+                        .timestamp(SYNTHETIC_START.plusSeconds(3600L * p))
+                        .value(value)
+                        .submittedBy("warmup@hospital-kpi.ai")
+                        .build());
+            }
+            result.add(KpiSeries.builder()
+                    .id("warmup-" + s)
+                    .hospitalId("warmup")
+                    .department("ICU")
+                    .metric("metric_" + s)
+                    .unit("%")
+                    .target(BigDecimal.valueOf(85))
+                    .history(history)
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+﻿package com.kpi.hospital;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.kpi.hospital.model.User;
+
+class FastStartupTest {
+
+    private static final long BUDGET_MS = Long.getLong("startup.budget-ms", 30_000);
+
+    @Test
+    void fastStartupProfileIsReadyWithinBudgetAndDefersIndexesDocsAndIdleBeans() throws InterruptedException {
+        long started = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HospitalKpiBackendApplication.class)
+                .profiles("fast-startup")
+                .run("--server.port=0", "--spring.data.mongodb.uri=" + InMemoryMongo.uri("fast_startup"))) {
+            TestRestTemplate restTemplate = new TestRestTemplate();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            ResponseEntity<String> readiness = restTemplate.getForEntity(baseUrl + "/actuator/health/readiness",
+                    String.class);
+            long timeToReadyMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+
+            assertThat(readiness.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(readiness.getBody()).contains("UP");
+            assertThat(timeToReadyMs).as("time to ready in ms").isLessThan(BUDGET_MS);
+
+            assertThat(context.getBeanFactory().containsSingleton("aiController")).isFalse();
+            assertThat(restTemplate.getForEntity(baseUrl + "/openapi.json", String.class).getBody())
+                    .contains("\"openapi\"", "/kpis/history/{hospitalId}");
+            assertThat(restTemplate.getForEntity(baseUrl + "/api-docs", String.class).getStatusCode())
+                    .isNotEqualTo(HttpStatus.OK);
+
+            MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+            assertThat(awaitIndexNames(mongoTemplate)).contains("email_id_idx", "hospital_email_idx");
+        }
+    }
+
+    private List<String> awaitIndexNames(MongoTemplate mongoTemplate) throws InterruptedException {
+        List<String> names = List.of();
+        for (int attempt = 0; attempt < 100 && names.size() < 2; attempt++) {
+            names = mongoTemplate.indexOps(User.class).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .filter(name -> !name.equals("_id_"))
+                    .toList();
+            Thread.sleep(100);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,23 @@
+﻿package com.kpi.hospital;
+
+import java.net.InetSocketAddress;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+public final class InMemoryMongo {
+
+    private static final MongoServer SERVER = new MongoServer(new MemoryBackend());
+    private static final InetSocketAddress ADDRESS = SERVER.bind();
+
+    private InMemoryMongo() {
+    }
+
+    public static String uri() {
+        return uri("hospital_kpi");
+    }
+
+    public static String uri(String database) {
+        return "mongodb://" + ADDRESS.getHostString() + ":" + ADDRESS.getPort() + "/" + database;
+    }
+}
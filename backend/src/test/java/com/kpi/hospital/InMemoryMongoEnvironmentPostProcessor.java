@@ -0,0 +1,18 @@
+﻿package com.kpi.hospital;
+
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+public class InMemoryMongoEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        // Lowest precedence: config/application.yml refers to it, and tests may still point elsewhere.
+        environment.getPropertySources().addLast(new MapPropertySource("inMemoryMongo",
+                Map.of("in-memory-mongo.uri", InMemoryMongo.uri())));
+    }
+}
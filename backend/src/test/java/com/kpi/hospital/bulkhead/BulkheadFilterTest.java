@@ -0,0 +1,156 @@
+﻿package com.kpi.hospital.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BulkheadFilterTest {
+
+    private static final long BASELINE = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAndShrinksWhenQueueingOrFailing() {
+        AdaptiveConcurrencyLimit limit = newLimit(10, 2, 40);
+        for (int i = 0; i < 10; i++) {
+            completeWhileSaturated(limit, BASELINE);
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThanOrEqualTo(15);
+
+        for (int i = 0; i < 10; i++) {
+            completeWhileSaturated(limit, BASELINE * 4);
+        }
+        int shrunk = limit.getLimit();
+        assertThat(shrunk).isLessThan(grown);
+
+        clock.addAndGet(BASELINE);
+        limit.release(limit.tryAcquire(), BASELINE, true);
+        assertThat(limit.getLimit()).isLessThan(shrunk);
+    }
+
+    @Test
+    void concurrentSlowOrFailedCallsShrinkTheLimitOncePerRoundTrip() {
+        AdaptiveConcurrencyLimit limit = newLimit(32, 8, 128);
+        for (int i = 0; i < 200; i++) {
+            completeWhileSaturated(limit, BASELINE);
+        }
+        int before = limit.getLimit();
+
+        // A whole limit's worth of calls admitted together and all finishing slowly, then all failing.
+        clock.addAndGet(BASELINE * 4);
+        for (int i = 0; i < before; i++) {
+            limit.tryAcquire();
+            limit.release(before, BASELINE * 4, false);
+        }
+        int afterSlow = limit.getLimit();
+        assertThat(afterSlow).isLessThan(before).isGreaterThan(before / 2);
+
+        for (int i = 0; i < afterSlow; i++) {
+            limit.tryAcquire();
+            limit.release(afterSlow, BASELINE * 4, true);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(8);
+    }
+
+    @Test
+    void cancelledPermitFreesTheSlotWithoutASample() {
+        AdaptiveConcurrencyLimit limit = newLimit(2, 1, 4);
+        limit.tryAcquire();
+        limit.tryAcquire();
+        assertThat(limit.tryAcquire()).isNegative();
+
+        limit.cancel();
+
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.tryAcquire()).isEqualTo(2);
+    }
+
+    @Test
+    void mixOfCheapAndExpensiveCallsIsNotMistakenForQueueing() {
+        AdaptiveConcurrencyLimit limit = newLimit(10, 2, 40);
+        for (int i = 0; i < 200; i++) {
+            completeWhileSaturated(limit, i % 4 == 0 ? BASELINE * 50 : BASELINE);
+        }
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenTheBulkheadIsMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = newLimit(10, 2, 20);
+        for (int i = 0; i < 5; i++) {
+            limit.release(limit.tryAcquire(), BASELINE, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void saturatedSubsystemIsShedWith503AndRetryAfterWhileOthersPass() throws Exception {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.getLimits().put(Subsystem.AI_INSIGHTS, new BulkheadProperties.Limit(2, 1, 4));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BulkheadFilter filter = new BulkheadFilter(properties, meterRegistry);
+        AdaptiveConcurrencyLimit ai = filter.limit(Subsystem.AI_INSIGHTS);
+        ai.tryAcquire();
+        ai.tryAcquire();
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockFilterChain shedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/ai/anomalies"), shed, shedChain);
+
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(shed.getContentAsString()).contains("ai-insights");
+        assertThat(shedChain.getRequest()).isNull();
+        assertThat(meterRegistry.get("kpi.bulkhead.rejected").tag("subsystem", "ai-insights").counter().count())
+                .isEqualTo(1);
+
+        MockHttpServletResponse submit = new MockHttpServletResponse();
+        MockFilterChain submitChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/kpis"), submit, submitChain);
+
+        assertThat(submit.getStatus()).isEqualTo(200);
+        assertThat(submitChain.getRequest()).isNotNull();
+        assertThat(filter.limit(Subsystem.INGESTION).getInFlight()).isZero();
+    }
+
+    @Test
+    void requestJoiningACoalescedCallGivesItsSlotBackOnce() throws Exception {
+        BulkheadFilter filter = new BulkheadFilter(new BulkheadProperties(), new SimpleMeterRegistry());
+        AdaptiveConcurrencyLimit analytics = filter.limit(Subsystem.ANALYTICS);
+        int limitBefore = analytics.getLimit();
+        int[] inFlightWhileWaiting = new int[1];
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/leaderboard"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    filter.onJoin("leaderboard");
+                    inFlightWhileWaiting[0] = analytics.getInFlight();
+                });
+
+        assertThat(inFlightWhileWaiting[0]).isZero();
+        assertThat(analytics.getInFlight()).isZero();
+        assertThat(analytics.getLimit()).isEqualTo(limitBefore);
+        filter.onJoin("outside-a-request");
+        assertThat(analytics.getInFlight()).isZero();
+    }
+
+    private AdaptiveConcurrencyLimit newLimit(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimit(initial, min, max, 1.5, 0.9, 600, clock::get);
+    }
+
+    private void completeWhileSaturated(AdaptiveConcurrencyLimit limit, long rttNanos) {
+        clock.addAndGet(rttNanos);
+        limit.tryAcquire();
+        limit.release(limit.getLimit(), rttNanos, false);
+    }
+}
@@ -0,0 +1,67 @@
+﻿package com.kpi.hospital.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HashRingTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    void everyNodeBuildsTheSameRingWhateverOrderItSeesMembersIn() {
+        HashRing a = HashRing.of(List.of("n1", "n2", "n3"), 64);
+        HashRing b = HashRing.of(List.of("n3", "n1", "n2"), 64);
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(b.owner(key(i))).isEqualTo(a.owner(key(i)));
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToThatNode() {
+        HashRing before = HashRing.of(List.of("n1", "n2", "n3"), 64);
+        HashRing after = HashRing.of(List.of("n1", "n2", "n3", "n4"), 64);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String previous = before.owner(key(i));
+            String current = after.owner(key(i));
+            if (!previous.equals(current)) {
+                assertThat(current).isEqualTo("n4");
+                moved++;
+            }
+        }
+        assertThat((double) moved / KEYS).isCloseTo(0.25, within(0.08));
+    }
+
+    @Test
+    void rangesCoverExactlyTheKeysANodeOwns() {
+        HashRing ring = HashRing.of(List.of("n1", "n2", "n3"), 64);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = key(i);
+            long token = HashRing.token(key);
+            String owner = ring.owner(key);
+            owned.merge(owner, 1, Integer::sum);
+            for (String node : ring.members()) {
+                boolean inRange = ring.ranges(node).stream()
+                        .anyMatch(range -> token >= range[0] && token <= range[1]);
+                assertThat(inRange).as("%s in a range of %s", key, node).isEqualTo(node.equals(owner));
+            }
+        }
+        double total = 0;
+        for (String node : ring.members()) {
+            total += ring.share(node);
+            assertThat(owned.get(node) / (double) KEYS).isCloseTo(ring.share(node), within(0.02));
+        }
+        assertThat(total).isCloseTo(1.0, within(1e-9));
+    }
+
+    private static String key(int i) {
+        return new SeriesKey("H" + (i % 500), "dept-" + (i % 7), "metric-" + i).id();
+    }
+}
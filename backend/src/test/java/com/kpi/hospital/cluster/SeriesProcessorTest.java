@@ -0,0 +1,107 @@
+﻿package com.kpi.hospital.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.dto.KpiSubmissionRequest;
+import com.kpi.hospital.model.SeriesState;
+import com.kpi.hospital.service.KpiService;
+
+class SeriesProcessorTest {
+
+    private static final int SERIES = 20;
+
+    @Test
+    void seriesAreAppliedOnceByTheirOwnerAndHandedOffWhenItLeaves() throws InterruptedException {
+        List<SeriesKey> keys = new ArrayList<>();
+        for (int i = 0; i < SERIES; i++) {
+            keys.add(new SeriesKey("series-hospital-" + i, "ICU", "bed_occupancy"));
+        }
+        try (ConfigurableApplicationContext a = node()) {
+            ClusterMembership membershipA = a.getBean(ClusterMembership.class);
+            SeriesProcessor processorA = a.getBean(SeriesProcessor.class);
+            List<SeriesKey> ownedByB = new ArrayList<>();
+            try (ConfigurableApplicationContext b = node()) {
+                ClusterMembership membershipB = b.getBean(ClusterMembership.class);
+                SeriesProcessor processorB = b.getBean(SeriesProcessor.class);
+                assertThat(await(() -> membershipA.ring().members().size() == 2
+                        && membershipB.ring().members().size() == 2)).as("both nodes on the ring").isTrue();
+                keys.stream().filter(key -> !membershipA.owns(key)).forEach(ownedByB::add);
+                assertThat(ownedByB).isNotEmpty().hasSizeLessThan(SERIES);
+
+                for (int round = 0; round < 3; round++) {
+                    for (SeriesKey key : keys) {
+                        submit(a, key, 70 + round);
+                    }
+                }
+
+                assertThat(await(() -> keys.stream().allMatch(key -> count(
+                        ownedByB.contains(key) ? processorB : processorA, key) == 3)))
+                        .as("every point applied once by the series' owner").isTrue();
+                assertThat(ownedByB).allMatch(key -> processorA.statistics(key).isEmpty());
+                assertThat(await(() -> processorA.queuedObservations() == 0)).as("queue drained").isTrue();
+            }
+
+            MongoTemplate mongoTemplate = a.getBean(MongoTemplate.class);
+            assertThat(ownedByB).allMatch(key -> mongoTemplate.findById(key.id(), SeriesState.class).isHandedOff());
+            assertThat(await(() -> membershipA.ring().members().size() == 1)).as("ring shrank").isTrue();
+
+            for (SeriesKey key : keys) {
+                submit(a, key, 90);
+            }
+
+            assertThat(await(() -> keys.stream().allMatch(key -> count(processorA, key) == 4)))
+                    .as("handed-off series continue from their checkpoint").isTrue();
+            for (SeriesKey key : ownedByB) {
+                SeriesState state = mongoTemplate.findById(key.id(), SeriesState.class);
+                assertThat(state.isHandedOff()).isFalse();
+                assertThat(state.getOwner()).isEqualTo(membershipA.nodeId());
+            }
+        }
+    }
+
+    private static long count(SeriesProcessor processor, SeriesKey key) {
+        return processor.statistics(key).map(SeriesStatistics::count).orElse(0L);
+    }
+
+    private static void submit(ConfigurableApplicationContext node, SeriesKey key, int value) {
+        KpiSubmissionRequest request = new KpiSubmissionRequest();
+        request.setHospitalId(key.hospitalId());
+        request.setDepartment(key.department());
+        request.setMetric(key.metric());
+        request.setUnit("%");
+        request.setValue(BigDecimal.valueOf(value));
+        node.getBean(KpiService.class).submitKpi(request, "director@hospital-kpi.ai");
+    }
+
+    private static ConfigurableApplicationContext node() {
+        return new SpringApplicationBuilder(HospitalKpiBackendApplication.class).run("--server.port=0",
+                "--spring.data.mongodb.uri=" + InMemoryMongo.uri("series_cluster"),
+                "--hospital-directory.refresh-interval-ms=600000",
+                "--kpi-data-versions.refresh-interval-ms=600000",
+                "--cluster.heartbeat-interval-ms=100",
+                "--cluster.member-ttl-ms=2000",
+                "--cluster.queue-poll-interval-ms=50");
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,113 @@
+﻿package com.kpi.hospital.coalescing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CoalescingProperties properties = new CoalescingProperties();
+    private final List<String> joined = new CopyOnWriteArrayList<>();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry, properties, List.of(joined::add));
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersForOneKeyShareOneComputationAndOtherKeysRunSeparately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String scope = i < 6 ? "H1" : "H2";
+            results.add(callers.submit(() -> singleFlight.execute("leaderboard", scope, () -> {
+                computations.incrementAndGet();
+                await(release);
+                return "result-" + scope;
+            })));
+        }
+        awaitInFlight(2);
+        Thread.sleep(200);
+        release.countDown();
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i < 6 ? "result-H1" : "result-H2");
+        }
+        assertThat(computations).hasValue(2);
+        assertThat(meterRegistry.get(SingleFlight.METRIC).tag("role", "leader").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(SingleFlight.METRIC).tag("role", "coalesced").counter().count()).isEqualTo(6);
+        assertThat(joined).hasSize(6).containsOnly("leaderboard");
+
+        assertThat(singleFlight.execute("leaderboard", "H1", () -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void waitersReceiveTheLeadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = callers.submit(() -> singleFlight.execute("anomalies", null, () -> {
+            await(release);
+            throw new IllegalStateException("engine down");
+        }));
+        awaitInFlight(1);
+        Future<Object> waiter = callers.submit(() -> singleFlight.execute("anomalies", null, () -> "unused"));
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Object> call : List.of(leader, waiter)) {
+            assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("engine down");
+        }
+    }
+
+    @Test
+    void waitersGiveUpOnAHungLeader() throws Exception {
+        properties.setJoinTimeoutMs(100);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = callers.submit(() -> singleFlight.execute("predictions", "H1", () -> {
+            await(release);
+            return "late";
+        }));
+        awaitInFlight(1);
+
+        assertThatThrownBy(() -> singleFlight.execute("predictions", "H1", () -> "unused"))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get(SingleFlight.METRIC).tag("role", "timed-out").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("late");
+    }
+
+    private void awaitInFlight(int flights) throws InterruptedException {
+        for (int attempt = 0; attempt < 50
+                && meterRegistry.get("kpi.coalescing.in.flight").gauge().value() < flights; attempt++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
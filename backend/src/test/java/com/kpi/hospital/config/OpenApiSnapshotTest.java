@@ -0,0 +1,45 @@
+﻿package com.kpi.hospital.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OpenApiSnapshotTest {
+
+    private static final Path SNAPSHOT = Path.of("src/main/resources/static/openapi.json");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void snapshotMatchesGeneratedDocument() throws Exception {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/api-docs", Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<?, ?> document = response.getBody();
+        document.remove("servers");
+        String generated = new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT, SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .writeValueAsString(document) + "\n";
+
+        if (Boolean.getBoolean("openapi.snapshot.update")) {
+            Files.writeString(SNAPSHOT, generated, StandardCharsets.UTF_8);
+        }
+        assertThat(Files.readString(SNAPSHOT, StandardCharsets.UTF_8))
+                .as("static/openapi.json is stale; rerun this test with -Dopenapi.snapshot.update=true")
+                .isEqualTo(generated);
+    }
+}
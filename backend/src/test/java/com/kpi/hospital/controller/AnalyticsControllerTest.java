@@ -0,0 +1,186 @@
+﻿package com.kpi.hospital.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.kpi.hospital.analytics.AggregateFunction;
+import com.kpi.hospital.analytics.AnalyticsDimension;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.dto.AnalyticsQueryRequest;
+import com.kpi.hospital.dto.AnalyticsQueryResponse;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.service.AnalyticsService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AnalyticsControllerTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T00:00:00Z");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private HospitalDirectory hospitalDirectory;
+
+    @Autowired
+    private KpiDataVersions kpiDataVersions;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    void seed() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(Hospital.class);
+        mongoTemplate.dropCollection(KpiSeries.class);
+        hospital("A1", "Kyiv", "UA");
+        hospital("A2", "Kyiv", "UA");
+        hospital("A3", "Lviv", "UA");
+        hospital("A4", "Berlin", "DE");
+        hospitalDirectory.reload();
+        series("A1", "ED", "ed_wait", 30, 40);
+        series("A2", "ED", "ed_wait", 50);
+        series("A3", "ED", "ed_wait", 20);
+        series("A4", "ED", "ed_wait", 10, 90);
+        series("A1", "ICU", "bed_occupancy", 80);
+        series("A4", "ICU", "bed_occupancy", 60);
+    }
+
+    @Test
+    void averagesByCityAcrossHospitals() {
+        AnalyticsQueryResponse response = analyticsService.query(request(List.of(AnalyticsDimension.CITY),
+                AggregateFunction.AVG, Set.of("ed_wait")));
+
+        assertThat(response.getRows()).extracting(row -> row.getGroup().get("city"))
+                .containsExactly("Berlin", "Kyiv", "Lviv");
+        assertThat(response.getRows()).extracting(AnalyticsQueryResponse.AnalyticsRow::getValue)
+                .containsExactly(50.0, 40.0, 20.0);
+        assertThat(response.getRows()).extracting(AnalyticsQueryResponse.AnalyticsRow::getCount)
+                .containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void groupsByCountryAndDepartmentWithinTheWindowAndFilters() {
+        AnalyticsQueryRequest request = request(List.of(AnalyticsDimension.DEPARTMENT, AnalyticsDimension.COUNTRY),
+                AggregateFunction.MAX, null);
+        request.setFrom(T0.plusSeconds(60));
+        request.setCountries(Set.of("UA", "DE"));
+
+        AnalyticsQueryResponse response = analyticsService.query(request);
+
+        // Only the second point of each two-point series falls in the window; dimensions come back in fixed order.
+        assertThat(response.getGroupBy()).containsExactly(AnalyticsDimension.COUNTRY, AnalyticsDimension.DEPARTMENT);
+        assertThat(response.getRows()).extracting(row -> row.getGroup().get("country") + "/"
+                + row.getGroup().get("department") + "=" + row.getValue())
+                .containsExactly("DE/ED=90.0", "UA/ED=40.0");
+
+        request.setCities(Set.of("Nowhere"));
+        assertThat(analyticsService.query(request).getRows()).isEmpty();
+    }
+
+    @Test
+    void equivalentQueriesShareACachedResultUntilTheDataChanges() {
+        AnalyticsQueryRequest first = request(List.of(AnalyticsDimension.METRIC, AnalyticsDimension.COUNTRY),
+                AggregateFunction.SUM, Set.of("ed_wait", "bed_occupancy"));
+        AnalyticsQueryRequest reordered = request(List.of(AnalyticsDimension.COUNTRY, AnalyticsDimension.METRIC,
+                AnalyticsDimension.COUNTRY), AggregateFunction.SUM, Set.of(" bed_occupancy", "ed_wait", ""));
+
+        AnalyticsQueryResponse cached = analyticsService.query(first);
+        assertThat(analyticsService.query(reordered)).isSameAs(cached);
+
+        series("A3", "ICU", "bed_occupancy", 70);
+        kpiDataVersions.markChanged("A3");
+        AnalyticsQueryResponse changed = analyticsService.query(reordered);
+        assertThat(changed).isNotSameAs(cached);
+        assertThat(changed.getRows()).extracting(row -> row.getGroup().get("country") + "/"
+                + row.getGroup().get("metric") + "=" + row.getValue())
+                .containsExactly("DE/bed_occupancy=60.0", "DE/ed_wait=100.0", "UA/bed_occupancy=150.0",
+                        "UA/ed_wait=140.0");
+    }
+
+    @Test
+    void rejectsAnEmptyWindow() {
+        AnalyticsQueryRequest request = request(List.of(), AggregateFunction.COUNT, null);
+        request.setFrom(T0);
+        request.setTo(T0);
+
+        assertThatThrownBy(() -> analyticsService.query(request)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void endpointAnswersNetworkWideCount() {
+        mongoTemplate.insert(User.builder()
+                .email("director@hospital-kpi.ai")
+                .password(passwordEncoder.encode("Director#1"))
+                .roles(Set.of(RoleType.DIRECTOR))
+                .active(true)
+                .build());
+        ResponseEntity<Map> login = restTemplate.postForEntity("/auth/login",
+                Map.of("email", "director@hospital-kpi.ai", "password", "Director#1"), Map.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+
+        ResponseEntity<Map> response = restTemplate.exchange("/analytics/query", HttpMethod.POST,
+                new HttpEntity<>(Map.of("groupBy", List.of(), "aggregate", "COUNT"), headers), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) response.getBody().get("rows");
+        assertThat(rows).hasSize(1);
+        assertThat(((Number) rows.get(0).get("value")).doubleValue()).isEqualTo(8.0);
+    }
+
+    private static AnalyticsQueryRequest request(List<AnalyticsDimension> groupBy, AggregateFunction aggregate,
+            Set<String> metrics) {
+        AnalyticsQueryRequest request = new AnalyticsQueryRequest();
+        request.setGroupBy(groupBy);
+        request.setAggregate(aggregate);
+        request.setMetrics(metrics);
+        return request;
+    }
+
+    private void hospital(String id, String city, String country) {
+        mongoTemplate.insert(Hospital.builder().id(id).name("Hospital " + id).code(id).city(city).country(country)
+                .build());
+    }
+
+    private void series(String hospitalId, String department, String metric, int... values) {
+        List<KpiPoint> history = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            history.add(KpiPoint.builder().timestamp(T0.plusSeconds(60L * i)).value(BigDecimal.valueOf(values[i]))
+                    .build());
+        }
+        mongoTemplate.insert(KpiSeries.builder().hospitalId(hospitalId).department(department).metric(metric)
+                .history(history).build());
+    }
+}
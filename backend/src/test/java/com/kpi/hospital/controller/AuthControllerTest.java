@@ -0,0 +1,101 @@
+﻿package com.kpi.hospital.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.kpi.hospital.model.RevokedToken;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.security.JwtTokenService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuthControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @BeforeEach
+    void seed() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(RevokedToken.class);
+        mongoTemplate.insert(user("admin@hospital-kpi.ai", "Admin#1", RoleType.ADMIN));
+        mongoTemplate.insert(user("director@hospital-kpi.ai", "Director#1", RoleType.DIRECTOR));
+    }
+
+    @Test
+    void loggedOutTokenIsRejected() {
+        String token = login("director@hospital-kpi.ai", "Director#1");
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", token, null)).isEqualTo(HttpStatus.OK);
+
+        assertThat(exchange(HttpMethod.POST, "/auth/logout", token, null)).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", token, null)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(mongoTemplate.findById(jwtTokenService.parseClaims(token).getId(), RevokedToken.class))
+                .extracting(RevokedToken::getReason).isEqualTo("logout");
+        String fresh = login("director@hospital-kpi.ai", "Director#1");
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", fresh, null)).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void onlyAdminsRevokeOtherTokens() {
+        String director = login("director@hospital-kpi.ai", "Director#1");
+        String admin = login("admin@hospital-kpi.ai", "Admin#1");
+        Map<String, String> revocation = Map.of("tokenId", jwtTokenService.parseClaims(director).getId(),
+                "reason", "lost device");
+
+        assertThat(exchange(HttpMethod.POST, "/auth/revoke", director, revocation)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", director, null)).isEqualTo(HttpStatus.OK);
+
+        assertThat(exchange(HttpMethod.POST, "/auth/revoke", admin, revocation)).isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", director, null)).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange(HttpMethod.GET, "/dashboard/summary", admin, null)).isEqualTo(HttpStatus.OK);
+    }
+
+    private User user(String email, String password, RoleType role) {
+        return User.builder()
+                .email(email)
+                .password(passwordEncoder.encode(password))
+                .roles(Set.of(role))
+                .active(true)
+                .build();
+    }
+
+    private String login(String email, String password) {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/auth/login",
+                Map.of("email", email, "password", password), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (String) response.getBody().get("token");
+    }
+
+    private HttpStatusCode exchange(HttpMethod method, String path, String token, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange(path, method, new HttpEntity<>(body, headers), String.class).getStatusCode();
+    }
+}
@@ -0,0 +1,104 @@
+﻿package com.kpi.hospital.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "slow-query-log.threshold-ms=0",
+        "slow-query-log.capture-sample-rate=1.0",
+        "slow-query-log.explain-sample-rate=1.0"
+})
+class DiagnosticsControllerTest {
+
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> SLOW_QUERIES =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void slowOperationsAreRecordedWithCallerShapeAndPlan() throws InterruptedException {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(KpiSeries.class);
+        mongoTemplate.insert(User.builder().email("admin@hospital-kpi.ai").password(passwordEncoder.encode("Admin#1"))
+                .roles(Set.of(RoleType.ADMIN)).active(true).build());
+        mongoTemplate.insert(KpiSeries.builder().hospitalId("H1").department("ICU").metric("m")
+                .history(List.of(KpiPoint.builder().timestamp(Instant.now()).value(BigDecimal.TEN).build())).build());
+        HttpHeaders admin = login("admin@hospital-kpi.ai", "Admin#1");
+
+        assertThat(get("/kpis/history/H1", admin, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/leaderboard", admin, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<String, Object> history = awaitSlowQuery(admin, "KpiSeriesRepository.findByHospitalId");
+        assertThat((String) history.get("caller")).startsWith("KpiServiceImpl.getKpiHistoryByHospital:");
+        assertThat(history.get("command")).isEqualTo("find");
+        assertThat(history.get("shape")).isEqualTo(Map.of("find", "kpi_series", "filter", Map.of("hospitalId", "?")));
+        assertThat(history.get("planSummary") != null || history.get("explainError") != null).isTrue();
+
+        Map<String, Object> leaderboard = awaitSlowQuery(admin, null);
+        assertThat((String) leaderboard.get("caller")).startsWith("LeaderboardServiceImpl.getLeaderboard:");
+        assertThat(leaderboard.get("command")).isEqualTo("aggregate");
+    }
+
+    private Map<String, Object> awaitSlowQuery(HttpHeaders headers, String repositoryMethod)
+            throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+                    "/diagnostics/slow-queries?collection=kpi_series&limit=500", HttpMethod.GET,
+                    new HttpEntity<>(headers), SLOW_QUERIES);
+            Optional<Map<String, Object>> match = response.getBody().stream()
+                    .filter(row -> repositoryMethod != null
+                            ? repositoryMethod.equals(row.get("repositoryMethod"))
+                            : "aggregate".equals(row.get("command")))
+                    .findFirst();
+            if (match.isPresent()) {
+                return match.get();
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("No slow query recorded for " + repositoryMethod);
+    }
+
+    private HttpHeaders login(String email, String password) {
+        ResponseEntity<Map> login = restTemplate.postForEntity("/auth/login",
+                Map.of("email", email, "password", password), Map.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+        return headers;
+    }
+
+    private <T> ResponseEntity<T> get(String path, HttpHeaders headers, Class<T> type) {
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), type);
+    }
+}
@@ -0,0 +1,201 @@
+﻿package com.kpi.hospital.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.tenancy.TenantRouter;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class KpiControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private KpiDataVersions kpiDataVersions;
+
+    @Autowired
+    private TenantRouter tenantRouter;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void seed() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(KpiSeries.class);
+        mongoTemplate.insert(User.builder()
+                .email("admin@hospital-kpi.ai")
+                .password(passwordEncoder.encode("Admin#1"))
+                .roles(Set.of(RoleType.ADMIN))
+                .active(true)
+                .build());
+        ResponseEntity<Map> login = restTemplate.postForEntity("/auth/login",
+                Map.of("email", "admin@hospital-kpi.ai", "password", "Admin#1"), Map.class);
+        headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+    }
+
+    @Test
+    void unchangedHistoryAndLeaderboardAnswerNotModified() {
+        submit("H1", 71);
+        ResponseEntity<String> first = get("/kpis/history/H1", null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).startsWith("W/\"kh-");
+
+        ResponseEntity<String> unchanged = get("/kpis/history/H1", etag);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+
+        String leaderboardTag = get("/leaderboard", null).getHeaders().getETag();
+        assertThat(get("/leaderboard", leaderboardTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        String summaryTag = get("/dashboard/summary", null).getHeaders().getETag();
+        assertThat(get("/dashboard/summary", summaryTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        submit("H1", 74);
+        ResponseEntity<String> changed = get("/kpis/history/H1", etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(get("/leaderboard", leaderboardTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/dashboard/summary", summaryTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void writesFromOtherNodesAreDetectedByPolling() {
+        submit("H2", 50);
+        String etag = get("/kpis/history/H2", null).getHeaders().getETag();
+
+        KpiSeries series = mongoTemplate.findOne(new Query(), KpiSeries.class);
+        series.getHistory().add(KpiPoint.builder().timestamp(Instant.now()).value(BigDecimal.ONE).build());
+        mongoTemplate.save(series);
+        // Another node bumps the persisted counter alongside its write.
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("H2")), new Update().inc("version", 1L),
+                KpiDataVersions.COLLECTION);
+        kpiDataVersions.refresh();
+
+        assertThat(get("/kpis/history/H2", etag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void replicasAndRestartsIssueTheSameValidators() {
+        submit("H5", 10);
+        String etag = get("/kpis/history/H5", null).getHeaders().getETag();
+
+        KpiDataVersions replica = new KpiDataVersions(mongoTemplate, tenantRouter);
+        replica.afterSingletonsInstantiated();
+        kpiDataVersions.refresh();
+
+        assertThat(replica.tag("kh", replica.hospitalVersion("H5"))).isEqualTo(etag);
+        assertThat(replica.globalVersion()).isEqualTo(kpiDataVersions.globalVersion());
+    }
+
+    @Test
+    void largeHistoryIsCompressed() {
+        List<KpiPoint> history = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            history.add(KpiPoint.builder().timestamp(Instant.now()).value(BigDecimal.valueOf(i)).build());
+        }
+        mongoTemplate.insert(KpiSeries.builder().hospitalId("H3").department("ICU").metric("m").history(history)
+                .build());
+        HttpHeaders gzipHeaders = new HttpHeaders();
+        gzipHeaders.putAll(headers);
+        gzipHeaders.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<byte[]> response = restTemplate.exchange("/kpis/history/H3", HttpMethod.GET,
+                new HttpEntity<>(gzipHeaders), byte[].class);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    void columnarAndBinaryHistoryAreNegotiatedFromAccept() throws Exception {
+        Instant at = Instant.parse("2026-01-01T00:00:00Z");
+        mongoTemplate.insert(KpiSeries.builder().hospitalId("H4").department("ICU").metric("m").unit("%")
+                .history(new ArrayList<>(List.of(
+                        KpiPoint.builder().timestamp(at).value(BigDecimal.valueOf(71.5)).build(),
+                        KpiPoint.builder().timestamp(at.plusSeconds(60)).value(BigDecimal.valueOf(73)).build())))
+                .build());
+
+        ResponseEntity<String> rows = exchange("/kpis/history/H4", MediaType.APPLICATION_JSON_VALUE, String.class);
+        ResponseEntity<String> columns = exchange("/kpis/history/H4", "application/vnd.kpi.columnar+json",
+                String.class);
+        assertThat(columns.getHeaders().getContentType().toString()).isEqualTo("application/vnd.kpi.columnar+json");
+        assertThat(columns.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        assertThat(columns.getHeaders().getETag()).isNotEqualTo(rows.getHeaders().getETag());
+        JsonNode series = new ObjectMapper().readTree(columns.getBody()).get(0);
+        assertThat(series.get("timestamps").get(1).asLong()).isEqualTo(at.plusSeconds(60).toEpochMilli());
+        assertThat(series.get("values").get(0).asDouble()).isEqualTo(71.5);
+        assertThat(columns.getBody().length()).isLessThan(rows.getBody().length());
+
+        ResponseEntity<byte[]> cbor = exchange("/kpis/history/H4", MediaType.APPLICATION_CBOR_VALUE, byte[].class);
+        assertThat(cbor.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        JsonNode decoded = new ObjectMapper(new CBORFactory()).readTree(cbor.getBody()).get(0);
+        assertThat(decoded.get("metric").asText()).isEqualTo("m");
+        assertThat(decoded.get("values").get(1).asDouble()).isEqualTo(73.0);
+    }
+
+    private <T> ResponseEntity<T> exchange(String path, String accept, Class<T> type) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.putAll(headers);
+        requestHeaders.set(HttpHeaders.ACCEPT, accept);
+        ResponseEntity<T> response = restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(requestHeaders), type);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+
+    private void submit(String hospitalId, int value) {
+        ResponseEntity<String> response = restTemplate.exchange("/kpis", HttpMethod.POST, new HttpEntity<>(Map.of(
+                "hospitalId", hospitalId,
+                "department", "ICU",
+                "metric", "bed_occupancy",
+                "unit", "%",
+                "value", value), headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> get(String path, String ifNoneMatch) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.putAll(headers);
+        if (ifNoneMatch != null) {
+            requestHeaders.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(requestHeaders), String.class);
+    }
+}
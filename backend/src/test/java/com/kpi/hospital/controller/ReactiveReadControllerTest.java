@@ -0,0 +1,126 @@
+﻿package com.kpi.hospital.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.KpiPoint;
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveReadControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private HospitalDirectory hospitalDirectory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String hospitalId;
+
+    @BeforeEach
+    void seed() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(Hospital.class);
+        mongoTemplate.dropCollection(KpiSeries.class);
+        mongoTemplate.insert(User.builder()
+                .email("director@hospital-kpi.ai")
+                .password(passwordEncoder.encode("Director#1"))
+                .roles(Set.of(RoleType.DIRECTOR))
+                .active(true)
+                .build());
+        for (int h = 0; h < 3; h++) {
+            Hospital hospital = mongoTemplate.insert(Hospital.builder().name("Hospital " + h).code("H" + h).build());
+            hospitalId = hospital.getId();
+            for (String metric : List.of("bed_occupancy", "readmission_rate")) {
+                List<KpiPoint> history = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    history.add(KpiPoint.builder()
+                            .timestamp(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(i * 3600L))
+                            .value(BigDecimal.valueOf(50 + h * 10 + i * (i == 3 ? 9 : 1)))
+                            .build());
+                }
+                mongoTemplate.insert(KpiSeries.builder()
+                        .hospitalId(hospital.getId())
+                        .department("ICU")
+                        .metric(metric)
+                        .history(history)
+                        .build());
+            }
+        }
+        hospitalDirectory.reload();
+    }
+
+    @Test
+    void reactiveEndpointsMatchBlockingOnes() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(login());
+
+        assertThat(get("/reactive/kpis/history/" + hospitalId, headers))
+                .isEqualTo(get("/kpis/history/" + hospitalId, headers));
+        JsonNode leaderboard = get("/reactive/leaderboard", headers);
+        assertThat(leaderboard).isEqualTo(get("/leaderboard", headers));
+        assertThat(leaderboard).hasSize(3);
+        assertThat(get("/reactive/ai/predictions", headers)).hasSize(6);
+
+        JsonNode summary = get("/reactive/dashboard/summary", headers);
+        JsonNode blockingSummary = get("/dashboard/summary", headers);
+        assertThat(summary.get("totalHospitals")).isEqualTo(blockingSummary.get("totalHospitals"));
+        assertThat(summary.get("monitoredKpis").asLong()).isEqualTo(6);
+        assertThat(summary.get("alerts")).hasSameSizeAs(blockingSummary.get("alerts"));
+    }
+
+    @Test
+    void reactiveEndpointsRequireAToken() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/reactive/leaderboard", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private String login() {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/auth/login",
+                Map.of("email", "director@hospital-kpi.ai", "password", "Director#1"), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (String) response.getBody().get("token");
+    }
+
+    private JsonNode get(String path, HttpHeaders headers) throws Exception {
+        ResponseEntity<String> response = restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertThat(response.getStatusCode()).as(path).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody());
+    }
+}
@@ -0,0 +1,87 @@
+﻿package com.kpi.hospital.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.cache.HospitalDirectory;
+import com.kpi.hospital.cache.KpiDataVersions;
+import com.kpi.hospital.dto.HospitalRequest;
+import com.kpi.hospital.dto.KpiSubmissionRequest;
+import com.kpi.hospital.dto.UpdateUserRequest;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.security.UserSecurityVersions;
+import com.kpi.hospital.service.HospitalService;
+import com.kpi.hospital.service.KpiService;
+import com.kpi.hospital.service.UserService;
+
+class InvalidationBusTest {
+
+    @Test
+    void writesOnOneNodeInvalidateTheOtherNodesCaches() throws InterruptedException {
+        try (ConfigurableApplicationContext a = node(); ConfigurableApplicationContext b = node()) {
+            HospitalDirectory directory = b.getBean(HospitalDirectory.class);
+
+            HospitalRequest request = new HospitalRequest();
+            request.setName("Hospital INV");
+            request.setCode("INV");
+            request.setAddress("Main street");
+            request.setDepartments(Set.of("ICU"));
+            String hospitalId = a.getBean(HospitalService.class).createOrUpdateHospital(request).getId();
+            assertThat(await(() -> directory.findById(hospitalId).isPresent())).as("hospital created").isTrue();
+
+            KpiDataVersions versions = b.getBean(KpiDataVersions.class);
+            KpiSubmissionRequest submission = new KpiSubmissionRequest();
+            submission.setHospitalId(hospitalId);
+            submission.setDepartment("ICU");
+            submission.setMetric("bed_occupancy");
+            submission.setUnit("%");
+            submission.setValue(BigDecimal.valueOf(80));
+            a.getBean(KpiService.class).submitKpi(submission, "director@hospital-kpi.ai");
+            assertThat(await(() -> versions.hospitalVersion(hospitalId) > 0)).as("KPI version bumped").isTrue();
+
+            User user = a.getBean(MongoTemplate.class).insert(User.builder()
+                    .email("manager.inv@hospital-kpi.ai")
+                    .password("x")
+                    .roles(Set.of(RoleType.MANAGER))
+                    .active(true)
+                    .build());
+            UpdateUserRequest deactivate = new UpdateUserRequest();
+            deactivate.setActive(false);
+            a.getBean(UserService.class).updateUser(user.getId(), deactivate);
+            UserSecurityVersions securityVersions = b.getBean(UserSecurityVersions.class);
+            assertThat(await(() -> !securityVersions.isCurrent(user.getEmail(), 0))).as("token revoked").isTrue();
+
+            a.getBean(HospitalService.class).deleteHospital(hospitalId);
+            assertThat(await(() -> directory.findById(hospitalId).isEmpty())).as("hospital deleted").isTrue();
+        }
+    }
+
+    private static ConfigurableApplicationContext node() {
+        return new SpringApplicationBuilder(HospitalKpiBackendApplication.class).run("--server.port=0",
+                "--spring.data.mongodb.uri=" + InMemoryMongo.uri("invalidation"),
+                "--hospital-directory.refresh-interval-ms=600000",
+                "--kpi-data-versions.refresh-interval-ms=600000",
+                "--invalidation.reconnect-delay-ms=50");
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}
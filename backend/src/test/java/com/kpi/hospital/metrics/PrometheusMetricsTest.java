@@ -0,0 +1,95 @@
+﻿package com.kpi.hospital.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.kpi.hospital.model.KpiSeries;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class PrometheusMetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void scrapeCarriesLayerTimersMongoCommandsAndJvmMetricsWithScopeTags() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(KpiSeries.class);
+        insertUser("manager@hospital-kpi.ai", RoleType.MANAGER, "H9");
+        insertUser("admin@hospital-kpi.ai", RoleType.ADMIN, null);
+        HttpHeaders headers = login("manager@hospital-kpi.ai");
+        ResponseEntity<String> history = restTemplate.exchange("/kpis/history/H9", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertThat(history.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(restTemplate.exchange("/actuator/prometheus", HttpMethod.GET, new HttpEntity<>(headers),
+                String.class).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        ResponseEntity<String> scrape = restTemplate.exchange("/actuator/prometheus", HttpMethod.GET,
+                new HttpEntity<>(login("admin@hospital-kpi.ai")), String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .containsPattern("kpi_method_seconds_bucket\\{[^}]*class=\"KpiServiceImpl\"[^}]*"
+                        + "method=\"getKpiHistoryByHospital\"[^}]*role=\"MANAGER\"")
+                .containsPattern("kpi_method_seconds_count\\{[^}]*class=\"JwtTokenService\"")
+                .containsPattern("mongodb_driver_commands_seconds_count\\{[^}]*collection=\"kpi_series\"[^}]*"
+                        + "command=\"find\"[^}]*role=\"MANAGER\"")
+                .containsPattern("http_server_requests_seconds_bucket\\{[^}]*role=\"MANAGER\"[^}]*"
+                        + "uri=\"/kpis/history/\\{hospitalId}\"")
+                .containsPattern("kpi_hospital_requests_total\\{[^}]*hospital=\"H9\"[^}]*role=\"MANAGER\"")
+                .doesNotContainPattern("_seconds_bucket\\{[^}]*hospital=")
+                .containsPattern("executor_active_threads\\{[^}]*name=\"password-hashing\"")
+                .contains("jvm_memory_used_bytes", "jvm_gc_", "jvm_threads_live_threads");
+    }
+
+    @Test
+    void anonymousHealthChecksSeeOnlyTheStatus() {
+        ResponseEntity<Map> health = restTemplate.getForEntity("/actuator/health", Map.class);
+
+        assertThat(health.getBody()).containsOnlyKeys("status");
+    }
+
+    private void insertUser(String email, RoleType role, String hospitalId) {
+        mongoTemplate.insert(User.builder()
+                .email(email)
+                .password(passwordEncoder.encode("Secret#1"))
+                .roles(Set.of(role))
+                .hospitalId(hospitalId)
+                .active(true)
+                .build());
+    }
+
+    private HttpHeaders login(String email) {
+        ResponseEntity<Map> login = restTemplate.postForEntity("/auth/login",
+                Map.of("email", email, "password", "Secret#1"), Map.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+        return headers;
+    }
+}
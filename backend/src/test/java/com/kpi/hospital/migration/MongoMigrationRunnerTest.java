@@ -0,0 +1,103 @@
+﻿package com.kpi.hospital.migration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.kpi.hospital.InMemoryMongo;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+class MongoMigrationRunnerTest {
+
+    private final MongoClient client = MongoClients.create(InMemoryMongo.uri("migrations"));
+    private final MongoTemplate mongoTemplate = new MongoTemplate(client, "migrations");
+
+    @BeforeEach
+    void clean() {
+        mongoTemplate.dropCollection(MongoMigrationRunner.COLLECTION);
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+    }
+
+    @Test
+    void replicasStartingTogetherApplyAMigrationOnce() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        MongoMigration migration = migration("001-slow", template -> {
+            applied.incrementAndGet();
+            sleep(300);
+        });
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<CompletableFuture<Void>> nodes = List.of(
+                CompletableFuture.runAsync(() -> startNode(start, migration)),
+                CompletableFuture.runAsync(() -> startNode(start, migration)));
+
+        CompletableFuture.allOf(nodes.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(applied).hasValue(1);
+        Document row = mongoTemplate.findById("001-slow", Document.class, MongoMigrationRunner.COLLECTION);
+        assertThat(row.getString("state")).isEqualTo(MongoMigrationRunner.APPLIED);
+        assertThat(row.get("appliedAt")).isNotNull();
+    }
+
+    @Test
+    void failedMigrationReleasesItsClaim() {
+        MongoMigration failing = migration("002-failing", template -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThatThrownBy(() -> new MongoMigrationRunner(mongoTemplate, List.of(failing)).afterSingletonsInstantiated())
+                .hasMessage("boom");
+        assertThat(mongoTemplate.findById("002-failing", Document.class, MongoMigrationRunner.COLLECTION)).isNull();
+
+        AtomicInteger applied = new AtomicInteger();
+        new MongoMigrationRunner(mongoTemplate, List.of(migration("002-failing", template -> applied.incrementAndGet())))
+                .afterSingletonsInstantiated();
+        assertThat(applied).hasValue(1);
+    }
+
+    private void startNode(CyclicBarrier start, MongoMigration migration) {
+        try {
+            start.await(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        new MongoMigrationRunner(mongoTemplate, List.of(migration)).afterSingletonsInstantiated();
+    }
+
+    private static MongoMigration migration(String id, Consumer<MongoTemplate> body) {
+        return new MongoMigration() {
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public void apply(MongoTemplate mongoTemplate) {
+                body.accept(mongoTemplate);
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+﻿package com.kpi.hospital.peer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TDigestTest {
+
+    private static final int POINTS = 100_000;
+
+    @Test
+    void quantilesAndRanksTrackTheExactDistribution() {
+        Random random = new Random(42);
+        double[] values = new double[POINTS];
+        TDigest digest = new TDigest(200);
+        for (int i = 0; i < POINTS; i++) {
+            values[i] = random.nextGaussian() * 10 + 50;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(digest.count()).isEqualTo(POINTS);
+        assertThat(digest.min()).isEqualTo(values[0]);
+        assertThat(digest.max()).isEqualTo(values[POINTS - 1]);
+        assertThat(digest.means().length).isLessThanOrEqualTo(200);
+        for (double q : new double[] {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99}) {
+            double exact = values[(int) (q * (POINTS - 1))];
+            assertThat(digest.cdf(digest.quantile(q))).as("rank of q%s", q).isCloseTo(q, within(0.005));
+            assertThat(rank(values, digest.quantile(q))).as("exact rank of q%s", q).isCloseTo(q, within(0.005));
+            assertThat(digest.cdf(exact)).as("cdf at exact q%s", q).isCloseTo(q, within(0.005));
+        }
+        assertThat(digest.cdf(values[0] - 1)).isZero();
+        assertThat(digest.cdf(values[POINTS - 1] + 1)).isEqualTo(1.0);
+    }
+
+    @Test
+    void mergedPartitionsMatchOneDigestOverAllPoints() {
+        Random random = new Random(7);
+        TDigest whole = new TDigest(200);
+        TDigest[] parts = {new TDigest(200), new TDigest(200), new TDigest(200)};
+        for (int i = 0; i < POINTS; i++) {
+            double value = random.nextDouble() * 100;
+            whole.add(value);
+            // Partitions see different ranges, like nodes serving different hospitals.
+            parts[value < 20 ? 0 : value < 70 ? 1 : 2].add(value);
+        }
+        TDigest merged = new TDigest(200);
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+
+        assertThat(merged.count()).isEqualTo(whole.count());
+        assertThat(merged.min()).isEqualTo(whole.min());
+        assertThat(merged.max()).isEqualTo(whole.max());
+        for (double q : new double[] {0.05, 0.5, 0.82, 0.95}) {
+            assertThat(merged.quantile(q)).isCloseTo(q * 100, within(1.0));
+            assertThat(merged.quantile(q)).isCloseTo(whole.quantile(q), within(1.0));
+        }
+    }
+
+    @Test
+    void restoredDigestAnswersLikeTheOriginal() {
+        TDigest digest = new TDigest(100);
+        for (int i = 1; i <= 1000; i++) {
+            digest.add(i);
+        }
+        TDigest restored = TDigest.of(digest.compression(), digest.means(), digest.weights(), digest.min(),
+                digest.max());
+
+        assertThat(restored.count()).isEqualTo(1000);
+        assertThat(restored.quantile(0.82)).isEqualTo(digest.quantile(0.82));
+        assertThat(restored.cdf(820)).isCloseTo(0.82, within(0.01));
+    }
+
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (index >= 0 ? index : -index - 1) / (double) sorted.length;
+    }
+}
@@ -0,0 +1,154 @@
+﻿package com.kpi.hospital.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.dto.ClusterJobResponse;
+import com.kpi.hospital.model.JobExecution;
+import com.kpi.hospital.model.JobExecutionStatus;
+import com.kpi.hospital.service.DiagnosticsService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+class ClusterJobSchedulerTest {
+
+    private static final String JOB = "test-rollup";
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+    private static final AtomicInteger MAX_RUNNING = new AtomicInteger();
+
+    @Test
+    void jobRunsOnOneNodeAtATimeAndFailsOver() throws InterruptedException {
+        ConfigurableApplicationContext a = node();
+        try (ConfigurableApplicationContext b = node()) {
+            MongoTemplate mongoTemplate = b.getBean(MongoTemplate.class);
+            assertThat(await(() -> executions(mongoTemplate).size() >= 5)).as("executions recorded").isTrue();
+
+            List<JobExecution> beforeFailover = executions(mongoTemplate);
+            String leader = beforeFailover.get(0).getOwner();
+            assertThat(beforeFailover).extracting(JobExecution::getOwner).containsOnly(leader);
+            assertThat(beforeFailover).extracting(JobExecution::getStatus).containsOnly(JobExecutionStatus.SUCCEEDED);
+            assertThat(MAX_RUNNING.get()).isEqualTo(1);
+
+            ConfigurableApplicationContext follower = a.getBean(JobLeases.class).owner().equals(leader) ? b : a;
+            (follower == a ? b : a).close();
+            String survivor = follower.getBean(JobLeases.class).owner();
+            assertThat(await(() -> executions(mongoTemplate).stream()
+                    .anyMatch(execution -> execution.getOwner().equals(survivor)))).as("failover").isTrue();
+
+            JobExecution takenOver = executions(mongoTemplate).stream()
+                    .filter(execution -> execution.getOwner().equals(survivor))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(takenOver.getFencingToken()).isGreaterThan(beforeFailover.get(0).getFencingToken());
+            assertThat(MAX_RUNNING.get()).isEqualTo(1);
+
+            DiagnosticsService diagnostics = follower.getBean(DiagnosticsService.class);
+            ClusterJobResponse job = diagnostics.getClusterJobs().stream()
+                    .filter(candidate -> candidate.getName().equals(JOB))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(job.getOwner()).isEqualTo(survivor);
+            assertThat(job.getIntervalMs()).isEqualTo(200);
+            assertThat(diagnostics.getJobExecutions(JOB, 3)).hasSize(3);
+            assertThatThrownBy(() -> diagnostics.getJobExecutions("missing", 3))
+                    .isInstanceOf(IllegalArgumentException.class);
+        } finally {
+            a.close();
+        }
+    }
+
+    @Test
+    void writesUnderAStaleLeaseAreFencedOff() {
+        try (MongoClient client = MongoClients.create(InMemoryMongo.uri("cluster_jobs_fencing"))) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, "cluster_jobs_fencing");
+            mongoTemplate.dropCollection("rollups");
+            JobContext stale = new JobContext(JOB, 1);
+            JobContext current = new JobContext(JOB, 2);
+
+            assertThat(stale.write(mongoTemplate, "rollups", "r1", new Update().set("value", 1))).isTrue();
+            assertThat(current.write(mongoTemplate, "rollups", "r1", new Update().set("value", 2))).isTrue();
+            assertThat(stale.write(mongoTemplate, "rollups", "r1", new Update().set("value", 3))).isFalse();
+
+            assertThat(stale.holdsLease()).isFalse();
+            assertThat(current.holdsLease()).isTrue();
+            assertThat(mongoTemplate.findById("r1", Document.class, "rollups"))
+                    .containsEntry("value", 2)
+                    .containsEntry(JobContext.FENCING_TOKEN, 2L);
+        }
+    }
+
+    private static List<JobExecution> executions(MongoTemplate mongoTemplate) {
+        return mongoTemplate.find(new Query(Criteria.where("job").is(JOB))
+                .with(Sort.by("startedAt")), JobExecution.class);
+    }
+
+    private static ConfigurableApplicationContext node() {
+        return new SpringApplicationBuilder(HospitalKpiBackendApplication.class, TestJobs.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + InMemoryMongo.uri("cluster_jobs"),
+                "--cluster-jobs.poll-interval-ms=50",
+                "--cluster-jobs.lease-ttl-ms=600",
+                "--cluster-jobs.jobs." + JOB + ".interval-ms=200");
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+
+    @Configuration
+    static class TestJobs {
+
+        @Bean
+        ClusterJob testRollup() {
+            return new ClusterJob() {
+
+                @Override
+                public String name() {
+                    return JOB;
+                }
+
+                @Override
+                public Duration defaultInterval() {
+                    return Duration.ofMinutes(1);
+                }
+
+                @Override
+                public void run(JobContext context) {
+                    MAX_RUNNING.accumulateAndGet(RUNNING.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        RUNNING.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+}
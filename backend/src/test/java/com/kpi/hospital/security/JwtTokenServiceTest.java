@@ -0,0 +1,150 @@
+﻿package com.kpi.hospital.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.model.RevokedToken;
+import com.kpi.hospital.repository.RevokedTokenRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+class JwtTokenServiceTest {
+
+    private static final String SECRET = "Y2hhbmdlLW1lLWNoYW5nZS1tZS1jaGFuZ2UtbWUtY2hhbmdlLW1l";
+    private static final String EMAIL = "director@hospital-kpi.ai";
+
+    private final MongoClient client = MongoClients.create(InMemoryMongo.uri("jwt"));
+
+    @AfterEach
+    void close() {
+        SecurityContextHolder.clearContext();
+        client.close();
+    }
+
+    @Test
+    void verifiedClaimsAreReusedUntilTheTokenChanges() {
+        JwtTokenService service = service(true);
+        String first = service.generateToken(authentication());
+        String second = service.generateToken(authentication());
+
+        assertThat(service.parseClaims(first)).isSameAs(service.parseClaims(first));
+        assertThat(service.parseClaims(second)).isNotSameAs(service.parseClaims(first));
+        assertThat(service.parseClaims(second).getId()).isNotEqualTo(service.parseClaims(first).getId());
+
+        JwtTokenService uncached = service(false);
+        assertThat(uncached.parseClaims(first)).isNotSameAs(uncached.parseClaims(first));
+    }
+
+    @Test
+    void issuedTokenReportsItsIdAndExpiry() {
+        JwtTokenService service = service(true);
+        IssuedToken issued = service.issueToken(authentication());
+
+        assertThat(service.parseClaims(issued.getToken()).getId()).isEqualTo(issued.getTokenId());
+        assertThat(service.getExpiryFromToken(issued.getToken())).isEqualTo(issued.getExpiresAt());
+        assertThat(service.parseToken(issued.getToken()).getName()).isEqualTo(EMAIL);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+        JwtTokenService service = service(true);
+        String token = service.generateToken(authentication());
+        service.parseClaims(token);
+        String[] parts = token.split("\\.");
+        String forged = service.generateToken(new UsernamePasswordAuthenticationToken("admin@hospital-kpi.ai", null,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))).split("\\.")[1];
+
+        assertThatThrownBy(() -> service.parseClaims(parts[0] + "." + forged + "." + parts[2]))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> service.parseClaims(token + "x")).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void cachedClaimsExpireWithTheToken() throws InterruptedException {
+        JwtTokenService service = service(true);
+        String token = Jwts.builder()
+                .setSubject(EMAIL)
+                .setId("short-lived")
+                .setExpiration(Date.from(Instant.now().plusMillis(1_500)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        assertThat(service.parseClaims(token).getId()).isEqualTo("short-lived");
+
+        Thread.sleep(2_000);
+
+        assertThatThrownBy(() -> service.parseClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void revokedTokenIsRejectedOnACacheHit() throws Exception {
+        JwtProperties properties = properties(true);
+        JwtTokenService service = new JwtTokenService(properties, null, new UserSecurityVersions(null));
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "jwt");
+        mongoTemplate.dropCollection(RevokedToken.class);
+        TokenDenylist denylist = new TokenDenylist(
+                new MongoRepositoryFactory(mongoTemplate).getRepository(RevokedTokenRepository.class),
+                mongoTemplate, properties);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(service, denylist);
+        IssuedToken issued = service.issueToken(authentication());
+
+        assertThat(authenticate(filter, issued.getToken())).isNotNull();
+        denylist.revoke(RevokedToken.builder()
+                .tokenId(issued.getTokenId())
+                .subject(EMAIL)
+                .expiresAt(issued.getExpiresAt())
+                .build());
+
+        assertThat(authenticate(filter, issued.getToken())).isNull();
+    }
+
+    private static Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard/summary");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static JwtTokenService service(boolean claimsCache) {
+        return new JwtTokenService(properties(claimsCache), null, new UserSecurityVersions(null));
+    }
+
+    private static JwtProperties properties(boolean claimsCache) {
+        JwtProperties properties = new JwtProperties();
+        properties.setIssuer("hospital-kpi-saas");
+        properties.setSecret(SECRET);
+        properties.setExpirationMinutes(60);
+        properties.getClaimsCache().setEnabled(claimsCache);
+        return properties;
+    }
+
+    private static Authentication authentication() {
+        return new UsernamePasswordAuthenticationToken(EMAIL, null,
+                List.of(new SimpleGrantedAuthority("ROLE_DIRECTOR")));
+    }
+}
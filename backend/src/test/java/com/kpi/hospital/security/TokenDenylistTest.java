@@ -0,0 +1,89 @@
+﻿package com.kpi.hospital.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.model.RevokedToken;
+import com.kpi.hospital.repository.RevokedTokenRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+class TokenDenylistTest {
+
+    private final MongoClient client = MongoClients.create(InMemoryMongo.uri("denylist"));
+    private final MongoTemplate mongoTemplate = new MongoTemplate(client, "denylist");
+    private final RevokedTokenRepository repository =
+            new MongoRepositoryFactory(mongoTemplate).getRepository(RevokedTokenRepository.class);
+
+    @BeforeEach
+    void clean() {
+        mongoTemplate.dropCollection(RevokedToken.class);
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+    }
+
+    @Test
+    void revocationReachesAnotherNodeOnItsNextRefresh() {
+        TokenDenylist revoking = node(100);
+        TokenDenylist other = node(100);
+
+        revoking.revoke(token("t-1", Instant.now().plusSeconds(600)));
+
+        assertThat(revoking.isRevoked("t-1")).isTrue();
+        assertThat(other.isRevoked("t-1")).isFalse();
+        other.refresh();
+        assertThat(other.isRevoked("t-1")).isTrue();
+        assertThat(other.isRevoked("t-2")).isFalse();
+        assertThat(mongoTemplate.findById("t-1", RevokedToken.class).getRevokedAt()).isNotNull();
+    }
+
+    @Test
+    void revokedTokensStayRejectedWhileTheFilterIsRebuilt() {
+        TokenDenylist denylist = node(16);
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            live.add("live-" + i);
+            denylist.revoke(token("live-" + i, Instant.now().plusSeconds(600)));
+        }
+        denylist.revoke(token("expired", Instant.now().minusSeconds(1)));
+
+        denylist.refresh();
+        denylist.refresh();
+
+        assertThat(live).allMatch(denylist::isRevoked);
+        assertThat(denylist.isRevoked("expired")).isFalse();
+        TokenDenylist restarted = node(16);
+        assertThat(live).allMatch(restarted::isRevoked);
+    }
+
+    private TokenDenylist node(long expectedRevocations) {
+        JwtProperties properties = new JwtProperties();
+        properties.getRevocation().setExpectedRevocations(expectedRevocations);
+        TokenDenylist denylist = new TokenDenylist(repository, mongoTemplate, properties);
+        denylist.afterSingletonsInstantiated();
+        return denylist;
+    }
+
+    private static RevokedToken token(String tokenId, Instant expiresAt) {
+        return RevokedToken.builder()
+                .tokenId(tokenId)
+                .subject("director@hospital-kpi.ai")
+                .revokedBy("admin@hospital-kpi.ai")
+                .reason("test")
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
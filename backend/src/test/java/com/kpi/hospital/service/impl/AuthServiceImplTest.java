@@ -0,0 +1,113 @@
+﻿package com.kpi.hospital.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.kpi.hospital.dto.BulkProvisioningRequest;
+import com.kpi.hospital.dto.BulkProvisioningResponse;
+import com.kpi.hospital.dto.BulkRowResult;
+import com.kpi.hospital.dto.HospitalRequest;
+import com.kpi.hospital.dto.RegisterUserRequest;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.Role;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.repository.RoleRepository;
+import com.kpi.hospital.repository.UserRepository;
+import com.kpi.hospital.service.AuthService;
+import com.kpi.hospital.service.HospitalService;
+
+@SpringBootTest
+class AuthServiceImplTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void cleanCollections() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(Role.class);
+        mongoTemplate.dropCollection(Hospital.class);
+    }
+
+    @Test
+    void bulkProvisioningCreatesValidRowsAndReportsTheRest() {
+        BulkProvisioningRequest<HospitalRequest> hospitals = new BulkProvisioningRequest<>();
+        hospitals.setItems(List.of(hospital("NORTH"), hospital("SOUTH"), hospital("NORTH")));
+        BulkProvisioningResponse hospitalResult = hospitalService.createHospitals(hospitals);
+        assertThat(hospitalResult.getCreated()).isEqualTo(2);
+        assertThat(hospitalResult.getResults().get(2).getError()).isEqualTo("Duplicate hospital code in batch");
+        String hospitalId = hospitalResult.getResults().get(0).getId();
+
+        userRepository.save(User.builder().email("taken@hospital-kpi.ai").roles(Set.of(RoleType.ADMIN)).build());
+        List<RegisterUserRequest> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(user("user" + i + "@hospital-kpi.ai", hospitalId));
+        }
+        rows.add(user("taken@hospital-kpi.ai", hospitalId));
+        rows.add(user("user0@hospital-kpi.ai", hospitalId));
+        rows.add(user("orphan@hospital-kpi.ai", "missing"));
+        rows.add(user("not-an-email", hospitalId));
+        BulkProvisioningRequest<RegisterUserRequest> request = new BulkProvisioningRequest<>();
+        request.setItems(rows);
+
+        BulkProvisioningResponse result = authService.registerAll(request);
+
+        assertThat(result.getRequested()).isEqualTo(24);
+        assertThat(result.getCreated()).isEqualTo(20);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getResults().subList(20, 24)).extracting(BulkRowResult::getError).containsExactly(
+                "Email already registered", "Duplicate email in batch", "Hospital not found",
+                "email must be a well-formed email address");
+        assertThat(roleRepository.findAll()).extracting(Role::getName)
+                .containsExactlyInAnyOrder(RoleType.MANAGER, RoleType.DIRECTOR);
+        User created = userRepository.findByEmail("user7@hospital-kpi.ai").orElseThrow();
+        assertThat(created.getId()).isEqualTo(result.getResults().get(7).getId());
+        assertThat(created.getHospitalId()).isEqualTo(hospitalId);
+        assertThat(passwordEncoder.matches("Secret#7", created.getPassword())).isTrue();
+    }
+
+    private static HospitalRequest hospital(String code) {
+        HospitalRequest request = new HospitalRequest();
+        request.setName("Hospital " + code);
+        request.setCode(code);
+        request.setAddress("1 Main Street");
+        request.setDepartments(Set.of("ER"));
+        return request;
+    }
+
+    private static RegisterUserRequest user(String email, String hospitalId) {
+        RegisterUserRequest request = new RegisterUserRequest();
+        request.setEmail(email);
+        request.setFullName("User " + email);
+        request.setPassword("Secret#" + email.replaceAll("\\D", ""));
+        request.setHospitalId(hospitalId);
+        request.setRoles(Set.of(RoleType.MANAGER, RoleType.DIRECTOR));
+        return request;
+    }
+}
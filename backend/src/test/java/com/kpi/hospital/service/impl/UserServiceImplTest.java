@@ -0,0 +1,171 @@
+﻿package com.kpi.hospital.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.kpi.hospital.dto.CursorPage;
+import com.kpi.hospital.dto.UserDto;
+import com.kpi.hospital.dto.UserSearchRequest;
+import com.kpi.hospital.migration.EmbedUserReferencesMigration;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.Role;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.repository.UserRepository;
+import com.kpi.hospital.service.UserService;
+import com.mongodb.DBRef;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+
+@SpringBootTest(properties = "slow-query-log.enabled=false")
+class UserServiceImplTest {
+
+    @TestConfiguration
+    static class CommandCountingConfiguration {
+
+        @Bean
+        CommandRecorder commandRecorder() {
+            return new CommandRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandRecorderCustomizer(CommandRecorder commandRecorder) {
+            return builder -> builder.addCommandListener(commandRecorder);
+        }
+    }
+
+    static class CommandRecorder implements CommandListener {
+
+        private final List<String> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            String target = "getMore".equals(event.getCommandName())
+                    ? event.getCommand().getString("collection").getValue()
+                    : event.getCommand().getString(event.getCommandName()).getValue();
+            commands.add(event.getCommandName() + " " + target);
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommandRecorder commandRecorder;
+
+    @BeforeEach
+    void cleanCollections() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(Role.class);
+        mongoTemplate.dropCollection(Hospital.class);
+    }
+
+    @Test
+    void listingThousandUsersDoesNotResolveReferencesPerUser() {
+        mongoTemplate.insert(Role.builder().name(RoleType.MANAGER).build());
+        mongoTemplate.insert(Role.builder().name(RoleType.DIRECTOR).build());
+        List<Hospital> hospitals = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            hospitals.add(mongoTemplate.insert(Hospital.builder().name("Hospital " + i).code("H" + i).build()));
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            users.add(User.builder()
+                    .email("user" + i + "@hospital-kpi.ai")
+                    .fullName("User " + i)
+                    .hospitalId(hospitals.get(i % hospitals.size()).getId())
+                    .roles(Set.of(RoleType.MANAGER, RoleType.DIRECTOR))
+                    .active(true)
+                    .build());
+        }
+        mongoTemplate.insertAll(users);
+        commandRecorder.commands.clear();
+
+        List<UserDto> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserSearchRequest request = new UserSearchRequest();
+            request.setLimit(500);
+            request.setCursor(cursor);
+            CursorPage<UserDto> page = userService.getUsers(request);
+            listed.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(listed).hasSize(1_000);
+        assertThat(listed).extracting(UserDto::getEmail).doesNotHaveDuplicates().isSorted();
+        assertThat(listed.get(0).getRoles()).containsExactlyInAnyOrder("MANAGER", "DIRECTOR");
+        assertThat(listed.get(0).getHospitalId()).isNotNull();
+        assertThat(commandRecorder.commands)
+                .allMatch(command -> command.endsWith(" users"))
+                .hasSizeLessThanOrEqualTo(11);
+    }
+
+    @Test
+    void keysetPagesFollowFiltersAndDescendingSort() {
+        for (int i = 0; i < 7; i++) {
+            mongoTemplate.insert(User.builder()
+                    .email("u" + i + "@hospital-kpi.ai")
+                    .fullName(i % 2 == 0 ? "Same Name" : "Name " + i)
+                    .roles(Set.of(i < 5 ? RoleType.MANAGER : RoleType.ADMIN))
+                    .active(true)
+                    .build());
+        }
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserSearchRequest request = new UserSearchRequest();
+            request.setLimit(2);
+            request.setCursor(cursor);
+            request.setSort("fullName");
+            request.setDirection("desc");
+            request.setRole(RoleType.MANAGER);
+            request.setFields(Set.of("fullName"));
+            CursorPage<UserDto> page = userService.getUsers(request);
+            page.getItems().forEach(user -> assertThat(user.getEmail()).isNull());
+            page.getItems().forEach(user -> names.add(user.getFullName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(names).containsExactly("Same Name", "Same Name", "Same Name", "Name 3", "Name 1");
+    }
+
+    @Test
+    void migrationEmbedsRoleNamesAndHospitalId() {
+        Role manager = mongoTemplate.insert(Role.builder().name(RoleType.MANAGER).build());
+        Hospital hospital = mongoTemplate.insert(Hospital.builder().name("General").code("GEN").build());
+        mongoTemplate.getCollection("users").insertOne(new Document("email", "legacy@hospital-kpi.ai")
+                .append("active", true)
+                .append("hospital", new DBRef("hospitals", new ObjectId(hospital.getId())))
+                .append("roles", List.of(new DBRef("roles", new ObjectId(manager.getId())))));
+
+        new EmbedUserReferencesMigration().apply(mongoTemplate);
+
+        User migrated = userRepository.findByEmail("legacy@hospital-kpi.ai").orElseThrow();
+        assertThat(migrated.getRoles()).containsExactly(RoleType.MANAGER);
+        assertThat(migrated.getHospitalId()).isEqualTo(hospital.getId());
+        Document raw = mongoTemplate.getCollection("users").find().first();
+        assertThat(raw).doesNotContainKeys("roles", "hospital");
+    }
+}
@@ -0,0 +1,195 @@
+﻿package com.kpi.hospital.tenancy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kpi.hospital.InMemoryMongo;
+import com.kpi.hospital.dto.HospitalRequest;
+import com.kpi.hospital.dto.KpiSubmissionRequest;
+import com.kpi.hospital.model.Hospital;
+import com.kpi.hospital.model.RoleType;
+import com.kpi.hospital.model.User;
+import com.kpi.hospital.service.HospitalService;
+import com.kpi.hospital.service.KpiService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TenantRoutingTest {
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> InMemoryMongo.uri("tenancy_shared"));
+        registry.add("tenancy.tenants.north.database", () -> "tenancy_north");
+        registry.add("tenancy.tenants.south.uri", () -> InMemoryMongo.uri("tenancy_south"));
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private HospitalService hospitalService;
+
+    @Autowired
+    private KpiService kpiService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final MongoClient client = MongoClients.create(InMemoryMongo.uri("tenancy_shared"));
+
+    @BeforeEach
+    void seed() {
+        mongoTemplate.dropCollection(User.class);
+        mongoTemplate.dropCollection(Hospital.class);
+        for (String database : new String[] { "tenancy_shared", "tenancy_north", "tenancy_south" }) {
+            client.getDatabase(database).getCollection("kpi_series").drop();
+        }
+        mongoTemplate.insert(User.builder()
+                .email("director@hospital-kpi.ai")
+                .password(passwordEncoder.encode("Director#1"))
+                .roles(Set.of(RoleType.DIRECTOR))
+                .active(true)
+                .build());
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+    }
+
+    @Test
+    void kpiDataLivesInTheOwningTenantsDatabaseAndNetworkViewsFanOut() throws Exception {
+        String shared = submit(hospital("SH", null), 70);
+        String north = submit(hospital("NO", "north"), 90);
+        String south = submit(hospital("SO", "south"), 80);
+
+        assertThat(hospitalIds("tenancy_shared")).containsExactly(shared);
+        assertThat(hospitalIds("tenancy_north")).containsExactly(north);
+        assertThat(hospitalIds("tenancy_south")).containsExactly(south);
+        assertThat(client.getDatabase("tenancy_north").getCollection("hospitals").countDocuments()).isZero();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(login());
+        JsonNode history = get("/kpis/history/" + north, headers);
+        assertThat(history).hasSize(1);
+        assertThat(history.get(0).get("hospitalId").asText()).isEqualTo(north);
+        assertThat(get("/reactive/kpis/history/" + north, headers)).isEqualTo(history);
+
+        JsonNode leaderboard = get("/leaderboard", headers);
+        assertThat(leaderboard).extracting(entry -> entry.get("hospitalId").asText())
+                .containsExactly(north, south, shared);
+        assertThat(get("/reactive/leaderboard", headers)).isEqualTo(leaderboard);
+        assertThat(get("/dashboard/summary", headers).get("monitoredKpis").asLong()).isEqualTo(3);
+        assertThat(get("/reactive/dashboard/summary", headers).get("monitoredKpis").asLong()).isEqualTo(3);
+        assertThat(get("/ai/predictions", headers)).hasSize(3);
+    }
+
+    @Test
+    void hospitalsOnlyJoinConfiguredTenantsAndCannotMoveBetweenThem() {
+        assertThatThrownBy(() -> hospital("XX", "west"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("west");
+
+        String north = hospital("NO", "north");
+        HospitalRequest move = request("NO", "south");
+        move.setId(north);
+        assertThatThrownBy(() -> hospitalService.createOrUpdateHospital(move))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void hospitalOfAnUnconfiguredTenantIsAClientError() throws Exception {
+        String orphan = mongoTemplate.insert(Hospital.builder()
+                .name("Hospital WE")
+                .code("WE")
+                .departments(Set.of("ICU"))
+                .tenantId("west")
+                .build()).getId();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(login());
+
+        for (String path : new String[] { "/kpis/history/" + orphan, "/reactive/kpis/history/" + orphan }) {
+            ResponseEntity<String> response = restTemplate.exchange(path, HttpMethod.GET,
+                    new HttpEntity<>(headers), String.class);
+            assertThat(response.getStatusCode()).as(path).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(response.getBody()).as(path).contains("west");
+        }
+    }
+
+    private String hospital(String code, String tenantId) {
+        return hospitalService.createOrUpdateHospital(request(code, tenantId)).getId();
+    }
+
+    private static HospitalRequest request(String code, String tenantId) {
+        HospitalRequest request = new HospitalRequest();
+        request.setName("Hospital " + code);
+        request.setCode(code);
+        request.setAddress("Main street");
+        request.setDepartments(Set.of("ICU"));
+        request.setTenantId(tenantId);
+        return request;
+    }
+
+    private String submit(String hospitalId, int value) {
+        KpiSubmissionRequest request = new KpiSubmissionRequest();
+        request.setHospitalId(hospitalId);
+        request.setDepartment("ICU");
+        request.setMetric("bed_occupancy");
+        request.setUnit("%");
+        request.setValue(BigDecimal.valueOf(value));
+        kpiService.submitKpi(request, "director@hospital-kpi.ai");
+        return hospitalId;
+    }
+
+    private Set<String> hospitalIds(String database) {
+        Set<String> ids = new HashSet<>();
+        client.getDatabase(database).getCollection("kpi_series").find()
+                .forEach((Document row) -> ids.add(row.getString("hospitalId")));
+        return ids;
+    }
+
+    private String login() {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/auth/login",
+                Map.of("email", "director@hospital-kpi.ai", "password", "Director#1"), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (String) response.getBody().get("token");
+    }
+
+    private JsonNode get(String path, HttpHeaders headers) throws Exception {
+        ResponseEntity<String> response = restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        assertThat(response.getStatusCode()).as(path).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody());
+    }
+}
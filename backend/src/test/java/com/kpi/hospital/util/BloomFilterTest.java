@@ -0,0 +1,29 @@
+﻿package com.kpi.hospital.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 50_000;
+
+    @Test
+    void neverMissesAnInsertedValueAndKeepsFalsePositivesNearTheTarget() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("token-" + i);
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(filter.mightContain("token-" + i)).as("token-%s", i).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < INSERTIONS; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / INSERTIONS).isLessThan(0.02);
+    }
+}
@@ -0,0 +1,50 @@
+﻿package com.kpi.hospital.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.kpi.hospital.HospitalKpiBackendApplication;
+import com.kpi.hospital.InMemoryMongo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+class WarmupRunnerTest {
+
+    @Test
+    void readinessIsAcceptedOnlyAfterEveryWarmupPhaseHasRun() {
+        List<String> phasesWhenReady = new ArrayList<>();
+        ApplicationListener<ApplicationEvent> readiness = event -> {
+            if (event instanceof AvailabilityChangeEvent<?> change
+                    && change.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                ((ApplicationContext) change.getSource()).getBean(MeterRegistry.class)
+                        .find("kpi.warmup").timers().stream()
+                        .filter(timer -> timer.count() == 1)
+                        .map(timer -> timer.getId().getTag("phase"))
+                        .forEach(phasesWhenReady::add);
+            }
+        };
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HospitalKpiBackendApplication.class)
+                .listeners(readiness)
+                .run("--server.port=0", "--spring.data.mongodb.uri=" + InMemoryMongo.uri("warmup"),
+                        "--warmup.enabled=true", "--warmup.iterations=50", "--warmup.query-iterations=2")) {
+            assertThat(phasesWhenReady)
+                    .containsExactlyInAnyOrder("metadata", "jwt", "mapping", "anomaly-scoring", "leaderboard");
+            Timer jwt = context.getBean(MeterRegistry.class).get("kpi.warmup").tag("phase", "jwt").timer();
+            assertThat(jwt.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        }
+    }
+}